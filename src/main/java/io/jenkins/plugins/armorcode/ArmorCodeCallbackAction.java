@@ -0,0 +1,140 @@
+package io.jenkins.plugins.armorcode;
+
+import hudson.Extension;
+import hudson.model.UnprotectedRootAction;
+import hudson.security.csrf.CrumbExclusion;
+import hudson.util.Secret;
+import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
+import io.jenkins.plugins.armorcode.gate.GateCallbackRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Endpoint that lets ArmorCode push a verdict for a build waiting on HOLD, e.g. when an admin releases it
+ * from the ArmorCode console. The body has the same shape as a build validation response plus the
+ * {@code jobName}, {@code buildNumber}, {@code product}, {@code subProducts} and {@code env} the gate
+ * reported, so that only that gate resumes when a build runs several. Requests must carry the shared secret
+ * from the global configuration in the {@value #TOKEN_HEADER} header; polling stays in place as a fallback.
+ */
+@Extension
+public class ArmorCodeCallbackAction implements UnprotectedRootAction {
+    private static final Logger LOGGER = Logger.getLogger(ArmorCodeCallbackAction.class.getName());
+
+    public static final String URL_NAME = "armorcode-callback";
+    public static final String TOKEN_HEADER = "X-ArmorCode-Token";
+
+    // Verdicts are small; anything larger is not a gate response
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    @POST
+    public HttpResponse doIndex(StaplerRequest2 req) throws IOException {
+        ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
+        String secret = config != null ? Secret.toString(config.getCallbackSecret()) : "";
+        if (secret.isEmpty()) {
+            // Callbacks are disabled until a secret is configured
+            return HttpResponses.notFound();
+        }
+
+        String presented = req.getHeader(TOKEN_HEADER);
+        if (presented == null
+                || !MessageDigest.isEqual(
+                        presented.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8))) {
+            LOGGER.warning("[ArmorCode] Rejected callback with missing or invalid token");
+            return HttpResponses.forbidden();
+        }
+
+        String body = new String(req.getInputStream().readNBytes(MAX_BODY_BYTES), StandardCharsets.UTF_8);
+        JSONObject json;
+        try {
+            json = JSONObject.fromObject(body);
+        } catch (JSONException e) {
+            return HttpResponses.error(400, "Invalid JSON body");
+        }
+        String jobName = json.optString("jobName", "");
+        String buildNumber = json.optString("buildNumber", "");
+        String product = json.optString("product", "");
+        String env = json.optString("env", "");
+        List<String> subProducts = subProductsOf(json);
+        if (jobName.isEmpty()
+                || buildNumber.isEmpty()
+                || product.isEmpty()
+                || env.isEmpty()
+                || subProducts == null
+                || !json.has("status")) {
+            return HttpResponses.error(400, "jobName, buildNumber, product, subProducts, env and status are required");
+        }
+
+        int delivered = GateCallbackRegistry.get().deliver(jobName, buildNumber, product, subProducts, env, body);
+        LOGGER.fine("[ArmorCode] Callback for " + jobName + " #" + buildNumber + " (" + product + "/" + env
+                + ") delivered to " + delivered + " waiting gates");
+        return delivered > 0 ? HttpResponses.ok() : HttpResponses.notFound();
+    }
+
+    /**
+     * Reads the sub-products as sent in the build validation request, a JSON array, or as newline-separated
+     * text. Returns null if the field is missing.
+     */
+    static List<String> subProductsOf(JSONObject json) {
+        Object value = json.opt("subProducts");
+        if (value == null || value instanceof JSONNull) {
+            return null;
+        }
+        List<String> subProducts = new ArrayList<>();
+        if (value instanceof JSONArray array) {
+            for (Object element : array) {
+                subProducts.add(String.valueOf(element));
+            }
+        } else {
+            subProducts.addAll(List.of(value.toString().split("\\r?\\n")));
+        }
+        return subProducts;
+    }
+
+    /**
+     * ArmorCode cannot obtain a crumb; the shared secret authenticates callbacks instead.
+     */
+    @Extension
+    public static class CallbackCrumbExclusion extends CrumbExclusion {
+        @Override
+        public boolean process(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+                throws IOException, ServletException {
+            String pathInfo = req.getPathInfo();
+            if (pathInfo != null && (pathInfo.equals("/" + URL_NAME) || pathInfo.startsWith("/" + URL_NAME + "/"))) {
+                chain.doFilter(req, resp);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.jenkins.plugins.armorcode;
+
+import hudson.XmlFile;
+import hudson.model.Job;
+import hudson.model.Run;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * Whether each job uses ArmorCode, as last detected by discovery, together with the state of the job the
+ * verdict was based on: the size and modification time of its {@code config.xml} and its last build number.
+ * A verdict is reused until any of those change. Kept in {@code JENKINS_HOME} so it survives restarts.
+ */
+final class ArmorCodeDetectionCache {
+    private static final Logger LOGGER = Logger.getLogger(ArmorCodeDetectionCache.class.getName());
+
+    static final String FILE_NAME = "io.jenkins.plugins.armorcode.DetectionCache.xml";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Builds started from this time on record ArmorCodeGateAction when they run a gate
+    private long actionsRecordedSince;
+    private transient XmlFile file;
+    private transient volatile boolean dirty;
+
+    /**
+     * A detection verdict and the job state it was based on.
+     */
+    static final class Entry {
+        private final long configModified;
+        private final long configSize;
+        private final int lastBuild;
+        private final boolean mapped;
+
+        Entry(long configModified, long configSize, int lastBuild, boolean mapped) {
+            this.configModified = configModified;
+            this.configSize = configSize;
+            this.lastBuild = lastBuild;
+            this.mapped = mapped;
+        }
+
+        boolean matches(Entry other) {
+            return configModified == other.configModified
+                    && configSize == other.configSize
+                    && lastBuild == other.lastBuild;
+        }
+    }
+
+    /**
+     * Loads the cache from {@code JENKINS_HOME}, or starts an empty one if there is none or it cannot be read.
+     */
+    static ArmorCodeDetectionCache load() {
+        XmlFile file = new XmlFile(Jenkins.XSTREAM2, new File(Jenkins.get().getRootDir(), FILE_NAME));
+        ArmorCodeDetectionCache cache = null;
+        if (file.exists()) {
+            try {
+                cache = (ArmorCodeDetectionCache) file.read();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "[ArmorCode] Could not read the detection cache; starting empty", e);
+            }
+        }
+        if (cache == null) {
+            cache = new ArmorCodeDetectionCache();
+        }
+        cache.file = file;
+        if (cache.actionsRecordedSince == 0) {
+            cache.actionsRecordedSince = System.currentTimeMillis();
+            cache.dirty = true;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the cached verdict for the job, or null if there is none or the job changed since.
+     */
+    Boolean lookup(Job<?, ?> job) {
+        Entry entry = entries.get(job.getFullName());
+        if (entry == null) {
+            return null;
+        }
+        Entry current = stateOf(job, false);
+        return current != null && current.matches(entry) ? entry.mapped : null;
+    }
+
+    /**
+     * Caches a verdict for the job as it is now. Jobs with a build in progress are skipped, since their
+     * verdict may still change while the build runs.
+     */
+    void record(Job<?, ?> job, boolean mapped) {
+        Entry entry = stateOf(job, mapped);
+        if (entry != null) {
+            entries.put(job.getFullName(), entry);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Drops the verdicts of jobs that no longer exist.
+     */
+    void retain(Collection<String> jobNames) {
+        Set<String> live = new HashSet<>(jobNames);
+        if (entries.keySet().retainAll(live)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Whether the build started late enough that a gate it ran would have recorded an
+     * {@link ArmorCodeGateAction}, so the absence of one means no gate ran.
+     */
+    boolean isRecordedByAction(Run<?, ?> build) {
+        return build.getStartTimeInMillis() >= actionsRecordedSince;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the cache back to {@code JENKINS_HOME} if it changed since it was loaded or last saved.
+     */
+    void save() {
+        if (!dirty || file == null) {
+            return;
+        }
+        dirty = false;
+        try {
+            file.write(this);
+        } catch (IOException e) {
+            dirty = true;
+            LOGGER.log(Level.WARNING, "[ArmorCode] Could not save the detection cache", e);
+        }
+    }
+
+    private static Entry stateOf(Job<?, ?> job, boolean mapped) {
+        Run<?, ?> lastBuild = job.getLastBuild();
+        if (lastBuild != null && lastBuild.isBuilding()) {
+            return null;
+        }
+        File config = job.getConfigFile().getFile();
+        return new Entry(
+                config.lastModified(), config.length(), lastBuild != null ? lastBuild.getNumber() : 0, mapped);
+    }
+}
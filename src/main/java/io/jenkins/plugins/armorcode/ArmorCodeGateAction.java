@@ -0,0 +1,136 @@
+package io.jenkins.plugins.armorcode;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import jenkins.model.RunAction2;
+
+/**
+ * Records the release gates a build ran and their results, so discovery can tell that a job uses
+ * ArmorCode without reading build logs. Jobs whose builds carry this action are also indexed in memory
+ * as the actions are attached or loaded.
+ */
+public class ArmorCodeGateAction implements RunAction2 {
+
+    // Jobs with a build known to have run a gate; weak keys, so deleted jobs drop out
+    private static final Set<Job<?, ?>> GATED_JOBS =
+            Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
+    private final List<Gate> gates = new CopyOnWriteArrayList<>();
+    private transient Run<?, ?> run;
+
+    /**
+     * One gate run by the build. The result is PASS or FAIL, or null while the gate has not finished.
+     */
+    public static final class Gate {
+        private final String product;
+        private final String subProducts;
+        private final String env;
+        private volatile String result;
+
+        Gate(String product, String subProducts, String env) {
+            this.product = product;
+            this.subProducts = subProducts;
+            this.env = env;
+        }
+
+        boolean isFor(String product, String subProducts, String env) {
+            return Objects.equals(this.product, product)
+                    && Objects.equals(this.subProducts, subProducts)
+                    && Objects.equals(this.env, env);
+        }
+
+        public String getProduct() {
+            return product;
+        }
+
+        public String getSubProducts() {
+            return subProducts;
+        }
+
+        public String getEnv() {
+            return env;
+        }
+
+        public String getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * Records that the build ran the given gate, with its result once known. Adds the action if needed.
+     */
+    static synchronized void record(Run<?, ?> run, String product, String subProducts, String env, String result) {
+        ArmorCodeGateAction action = run.getAction(ArmorCodeGateAction.class);
+        if (action == null) {
+            action = new ArmorCodeGateAction();
+            run.addAction(action);
+        }
+        Gate gate = null;
+        for (Gate existing : action.gates) {
+            if (existing.isFor(product, subProducts, env)) {
+                gate = existing;
+            }
+        }
+        if (gate == null) {
+            gate = new Gate(product, subProducts, env);
+            action.gates.add(gate);
+        }
+        if (result != null) {
+            gate.result = result;
+        }
+    }
+
+    /**
+     * Whether any build of the job is known to have run a release gate since Jenkins started.
+     */
+    static boolean isGated(Job<?, ?> job) {
+        return GATED_JOBS.contains(job);
+    }
+
+    private void index() {
+        if (run != null) {
+            GATED_JOBS.add(run.getParent());
+        }
+    }
+
+    public List<Gate> getGates() {
+        return Collections.unmodifiableList(gates);
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    @Override
+    public void onAttached(Run<?, ?> run) {
+        this.run = run;
+        index();
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> run) {
+        this.run = run;
+        index();
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return null;
+    }
+}
@@ -0,0 +1,335 @@
+package io.jenkins.plugins.armorcode;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.model.Computer;
+import hudson.model.Items;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import io.jenkins.plugins.armorcode.gate.CircuitOpenException;
+import io.jenkins.plugins.armorcode.gate.GateCallbackRegistry;
+import io.jenkins.plugins.armorcode.gate.GateDeadline;
+import io.jenkins.plugins.armorcode.gate.GatePayload;
+import io.jenkins.plugins.armorcode.gate.GateResponse;
+import java.io.Serializable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import jenkins.util.Timer;
+
+/**
+ * Checks one release gate without holding a thread, for the Pipeline steps.
+ * Each request runs on the remoting thread pool and every HOLD wait is a timer task; a verdict pushed
+ * through {@link ArmorCodeCallbackAction} ends the wait early. The gate configuration, attempt count,
+ * deadline and last status are serializable, so a step execution that saves the poller can resume it
+ * after a controller restart; the token is looked up again rather than saved.
+ */
+final class ArmorCodeGatePoller implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Receives the outcome of the gate, once, unless the poller is cancelled first.
+     */
+    interface Handler {
+        /**
+         * The gate passed, or failed in warn mode.
+         */
+        void onVerdict(ArmorCodeReleaseGateBuilder.PollOutcome outcome);
+
+        /**
+         * The gate failed in block mode or could not be checked.
+         */
+        void onError(Throwable cause);
+
+        /**
+         * The poller is about to wait for its next poll; saving now lets a restart continue from here.
+         */
+        void saveState();
+    }
+
+    // The builder itself is kept in its XML form, as in a job configuration
+    private final String gateConfig;
+    private GateDeadline deadline;
+    private String verdictCacheKey;
+    private volatile String lastStatus = "PENDING";
+    private volatile int attempt;
+    private volatile long nextPollAt; // epoch millis
+
+    private transient ArmorCodeReleaseGateBuilder gate;
+
+    // Resolved in start() or resume() and reused for every poll
+    private transient Run<?, ?> run;
+    private transient TaskListener listener;
+    private transient Handler handler;
+    private transient String token;
+    private transient String apiUrl;
+    private transient String jobUrl;
+    private transient GateCallbackRegistry.Registration callbackRegistration;
+    private transient FilePath agent;
+    private transient volatile GatePayload payload;
+
+    private transient volatile Future<?> pending;
+    private transient volatile boolean done;
+
+    ArmorCodeGatePoller(ArmorCodeReleaseGateBuilder gate) {
+        this.gate = gate;
+        this.gateConfig = Items.XSTREAM2.toXML(gate);
+    }
+
+    ArmorCodeReleaseGateBuilder getGate() {
+        if (gate == null) {
+            gate = (ArmorCodeReleaseGateBuilder) Items.XSTREAM2.fromXML(gateConfig);
+        }
+        return gate;
+    }
+
+    int getAttempt() {
+        return attempt;
+    }
+
+    /**
+     * Starts checking the gate. Configuration problems are thrown. A cached PASS verdict is handed to the
+     * handler before this returns true; otherwise the first poll is scheduled and this returns false.
+     * The workspace and environment may be null.
+     */
+    boolean start(Run<?, ?> run, TaskListener listener, FilePath workspace, EnvVars envVars, Handler handler)
+            throws Exception {
+        this.run = run;
+        this.listener = listener;
+        this.handler = handler;
+        ArmorCodeReleaseGateBuilder gate = getGate();
+
+        apiUrl = gate.resolveApiUrl();
+        token = gate.resolveToken(run);
+        jobUrl = ArmorCodeReleaseGateBuilder.resolveJobUrl(run, listener);
+
+        listener.getLogger().println("=== Starting ArmorCode Release Gate Check ===");
+        gate.recordGateUsage(run);
+        deadline = gate.newDeadline();
+        agent = gate.agentFor(workspace, listener);
+
+        // A revision that already passed this gate recently completes synchronously
+        verdictCacheKey = gate.verdictCacheKey(token, apiUrl, ArmorCodeReleaseGateBuilder.resolveRevision(envVars));
+        if (gate.applyCachedVerdict(run, listener, verdictCacheKey)) {
+            done = true;
+            handler.onVerdict(ArmorCodeReleaseGateBuilder.PollOutcome.PASSED);
+            return true;
+        }
+
+        registerForCallbacks();
+        schedulePoll(0);
+        return false;
+    }
+
+    /**
+     * Continues a poller loaded after a controller restart, keeping the wait that was in progress.
+     */
+    void resume(Run<?, ?> run, TaskListener listener, FilePath workspace, Handler handler) {
+        this.run = run;
+        this.listener = listener;
+        this.handler = handler;
+        try {
+            ArmorCodeReleaseGateBuilder gate = getGate();
+            apiUrl = gate.resolveApiUrl();
+            token = gate.resolveToken(run);
+            jobUrl = ArmorCodeReleaseGateBuilder.resolveJobUrl(run, listener);
+            if (gate.isRunOnAgent()) {
+                agent = gate.agentFor(workspace, listener);
+            }
+        } catch (Exception e) {
+            fail(e);
+            return;
+        }
+        listener.getLogger()
+                .println("[INFO] Resuming ArmorCode release gate after a Jenkins restart (" + attempt + " of "
+                        + gate.getMaxRetries() + " attempts made, last status was " + lastStatus + ")");
+        registerForCallbacks();
+        // Poll right away if the wait is already over
+        schedulePoll(Math.max(0, TimeUnit.MILLISECONDS.toSeconds(nextPollAt - System.currentTimeMillis() + 999)));
+    }
+
+    /**
+     * Stops polling, cancelling any request in flight, without reporting to the handler.
+     * Returns false if the gate had already finished.
+     */
+    boolean cancel() {
+        if (!markDone()) {
+            return false;
+        }
+        Future<?> current = pending;
+        if (current != null) {
+            current.cancel(true);
+        }
+        return true;
+    }
+
+    private synchronized void registerForCallbacks() {
+        if (done) {
+            return;
+        }
+        callbackRegistration = GateCallbackRegistry.get()
+                .register(
+                        run.getParent().getFullName(),
+                        String.valueOf(run.getNumber()),
+                        gate.getProduct(),
+                        gate.getSubProductList(),
+                        gate.getEnv(),
+                        this::onCallback);
+    }
+
+    /**
+     * A verdict pushed by ArmorCode. A final verdict cancels the pending poll; a pushed HOLD changes nothing.
+     */
+    private void onCallback(String response) {
+        if (!done) {
+            Computer.threadPoolForRemoting.submit(() -> applyPushed(response));
+        }
+    }
+
+    private void applyPushed(String response) {
+        try {
+            GateResponse pushed = GateResponse.parse(response);
+            if (pushed.isHold()) {
+                return;
+            }
+            finish(() -> {
+                Future<?> current = pending;
+                if (current != null) {
+                    current.cancel(false);
+                }
+                listener.getLogger().println("[INFO] Verdict received from ArmorCode callback");
+                return gate.applyGateStatus(run, listener, pushed, verdictCacheKey);
+            });
+        } catch (Exception e) {
+            // Polling carries on as if the callback never arrived
+            listener.getLogger().println("[ERROR] Ignoring invalid ArmorCode callback: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Schedules the next poll. The timer thread only hands off to the remoting pool, so a slow
+     * ArmorCode response never blocks other timer tasks.
+     */
+    private void schedulePoll(long delaySeconds) {
+        nextPollAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(delaySeconds);
+        // Record progress so a restart continues from here rather than from the first attempt
+        handler.saveState();
+        if (delaySeconds <= 0) {
+            pending = Computer.threadPoolForRemoting.submit(this::poll);
+            return;
+        }
+        pending = Timer.get()
+                .schedule(
+                        () -> {
+                            if (!done) {
+                                pending = Computer.threadPoolForRemoting.submit(this::poll);
+                            }
+                        },
+                        delaySeconds,
+                        TimeUnit.SECONDS);
+    }
+
+    private void poll() {
+        if (done) {
+            return;
+        }
+        if (deadline.isExpired()) {
+            finish(() -> {
+                gate.handleDeadlineExceeded(run, listener, lastStatus);
+                return ArmorCodeReleaseGateBuilder.PollOutcome.FAILED;
+            });
+            return;
+        }
+        attempt++;
+        final int maxRetries = gate.getMaxRetries();
+        try {
+            payload = gate.payloadFor(payload, String.valueOf(run.getNumber()), run.getParent().getFullName(), jobUrl);
+            GateResponse response = gate.requestGateStatus(
+                    listener,
+                    agent,
+                    payload,
+                    token,
+                    attempt,
+                    apiUrl,
+                    deadline.attemptTimeout(ArmorCodeReleaseGateBuilder.requestTimeout()));
+            if (!response.isHold()) {
+                finish(() -> gate.applyGateStatus(run, listener, response, verdictCacheKey));
+                return;
+            }
+            synchronized (this) {
+                if (done) {
+                    // Stopped, or released by a callback, while the request was in flight
+                    return;
+                }
+                gate.applyGateStatus(run, listener, response, verdictCacheKey);
+            }
+            lastStatus = "HOLD";
+            if (attempt >= maxRetries) {
+                finish(() -> {
+                    gate.handleHoldExhausted(run, listener);
+                    return ArmorCodeReleaseGateBuilder.PollOutcome.FAILED;
+                });
+                return;
+            }
+            long delay = deadline.clampDelaySeconds(gate.holdDelaySeconds(attempt, response));
+            ArmorCodeReleaseGateBuilder.logHold(listener, delay);
+            schedulePoll(delay);
+        } catch (AbortException e) {
+            fail(e);
+        } catch (CircuitOpenException e) {
+            finish(() -> gate.applyCircuitFallback(run, listener));
+        } catch (InterruptedException e) {
+            // Cancelled, and already marked done
+            fail(e);
+        } catch (Exception e) {
+            listener.getLogger().println("[ERROR] ArmorCode request failed: " + e.getMessage());
+            lastStatus = "ERROR";
+            if (attempt >= maxRetries) {
+                fail(new AbortException("ArmorCode request error after maximum retries."));
+                return;
+            }
+            long delay = deadline.clampDelaySeconds(gate.errorDelaySeconds(attempt, e));
+            listener.getLogger().println("Waiting " + delay + "s before retry...");
+            schedulePoll(delay);
+        }
+    }
+
+    private synchronized boolean markDone() {
+        if (done) {
+            return false;
+        }
+        done = true;
+        if (callbackRegistration != null) {
+            callbackRegistration.close();
+        }
+        return true;
+    }
+
+    /**
+     * Applies a final verdict to the run. Marking the gate done first means a poll and a callback that finish
+     * at the same time apply it only once; the handler is then told the outcome outside the lock.
+     */
+    private void finish(Verdict verdict) {
+        if (!markDone()) {
+            return;
+        }
+        ArmorCodeReleaseGateBuilder.PollOutcome outcome;
+        try {
+            outcome = verdict.apply();
+        } catch (AbortException e) {
+            handler.onError(e);
+            return;
+        }
+        handler.onVerdict(outcome);
+    }
+
+    private interface Verdict {
+        ArmorCodeReleaseGateBuilder.PollOutcome apply() throws AbortException;
+    }
+
+    private void fail(Throwable cause) {
+        if (markDone()) {
+            handler.onError(cause);
+        }
+    }
+}
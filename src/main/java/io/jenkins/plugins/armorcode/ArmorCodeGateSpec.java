@@ -0,0 +1,45 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * One product, sub-product and environment tuple checked by {@link ArmorCodeReleaseGatesStep}.
+ */
+public class ArmorCodeGateSpec extends AbstractDescribableImpl<ArmorCodeGateSpec> {
+
+    private final String product;
+    private final Object subProducts;
+    private final String env;
+
+    @DataBoundConstructor
+    public ArmorCodeGateSpec(String product, Object subProducts, String env) {
+        this.product = product;
+        this.subProducts = subProducts;
+        this.env = env;
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    public Object getSubProducts() {
+        return subProducts;
+    }
+
+    public String getEnv() {
+        return env;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<ArmorCodeGateSpec> {
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "ArmorCode Gate";
+        }
+    }
+}
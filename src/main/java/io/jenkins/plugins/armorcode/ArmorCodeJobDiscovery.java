@@ -1,7 +1,6 @@
 package io.jenkins.plugins.armorcode;
 
 import hudson.Extension;
-import hudson.FilePath;
 import hudson.model.AsyncPeriodicWork;
 import hudson.model.Job;
 import hudson.model.Run;
@@ -9,15 +8,21 @@ import hudson.model.TaskListener;
 import hudson.scheduler.CronTabList;
 import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
 import io.jenkins.plugins.armorcode.credentials.CredentialsUtils;
+import io.jenkins.plugins.armorcode.http.ArmorCodeHttpClient;
+import io.jenkins.plugins.armorcode.http.LimitedBody;
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,8 +38,20 @@ import net.sf.json.JSONObject;
 public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
     private static final Logger LOGGER = Logger.getLogger(ArmorCodeJobDiscovery.class.getName());
 
+    // Batch replies are only logged, never parsed
+    private static final int MAX_LOGGED_RESPONSE_BYTES = 4096;
+
     private Calendar lastExecutionTime = null;
 
+    // When every job was last sent; 0 until the first full scan since Jenkins started
+    private long lastFullScanMillis = 0;
+
+    // Loaded from JENKINS_HOME on first use
+    private ArmorCodeDetectionCache detectionCache;
+
+    // Branches using ArmorCode per multibranch project, shared by the branches during one collection
+    private Map<hudson.model.ItemGroup<?>, List<Job<?, ?>>> branchesUsingArmorCode;
+
     /**
      * Constructor with name for the background task.
      */
@@ -138,27 +155,48 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
                 return;
             }
 
-            // Collect job data
-            List<JSONObject> jobsData = collectJobsData(config, listener);
-
-            if (jobsData.isEmpty()) {
-                LOGGER.fine("[ArmorCode] No matching jobs found during discovery");
-                listener.getLogger().println("[ArmorCode] No matching jobs found during discovery");
-                return;
-            }
+            // Only jobs marked by ArmorCodeJobIndex unless a full scan is due
+            boolean fullScan = isFullScanDue(config);
+            List<String> changedJobs = ArmorCodeJobIndex.drain();
+            boolean sent = false;
+            try {
+                List<JSONObject> jobsData = fullScan
+                        ? collectJobsData(config, listener)
+                        : collectChangedJobsData(config, changedJobs, listener);
+
+                if (jobsData.isEmpty()) {
+                    String message = fullScan
+                            ? "[ArmorCode] No matching jobs found during discovery"
+                            : "[ArmorCode] No jobs changed since the last discovery run";
+                    LOGGER.fine(message);
+                    listener.getLogger().println(message);
+                    sent = true;
+                    return;
+                }
 
-            // Log collected job data at FINE level
-            LOGGER.fine("[ArmorCode] Collected " + jobsData.size() + " jobs for discovery");
+                // Log collected job data at FINE level
+                LOGGER.fine("[ArmorCode] Collected " + jobsData.size() + " jobs for discovery"
+                        + (fullScan ? "" : " (changed jobs only)"));
 
-            // Send data to ArmorCode in batches
-            boolean success = sendJobsDataInBatches(config, token, jobsData, listener);
+                // Send data to ArmorCode in batches
+                sent = sendJobsDataInBatches(config, token, jobsData, listener);
 
-            if (success) {
-                LOGGER.fine("[ArmorCode] Successfully sent " + jobsData.size() + " jobs to ArmorCode");
-                listener.getLogger().println("[ArmorCode] Successfully sent " + jobsData.size() + " jobs to ArmorCode");
-            } else {
-                LOGGER.warning("[ArmorCode] Failed to send job discovery data");
-                listener.getLogger().println("[ArmorCode] Failed to send job discovery data");
+                if (sent) {
+                    if (fullScan) {
+                        lastFullScanMillis = System.currentTimeMillis();
+                    }
+                    LOGGER.fine("[ArmorCode] Successfully sent " + jobsData.size() + " jobs to ArmorCode");
+                    listener.getLogger()
+                            .println("[ArmorCode] Successfully sent " + jobsData.size() + " jobs to ArmorCode");
+                } else {
+                    LOGGER.warning("[ArmorCode] Failed to send job discovery data");
+                    listener.getLogger().println("[ArmorCode] Failed to send job discovery data");
+                }
+            } finally {
+                if (!sent) {
+                    // Send these jobs again on the next run
+                    ArmorCodeJobIndex.restore(changedJobs);
+                }
             }
 
         } catch (Exception e) {
@@ -173,66 +211,161 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
     private List<JSONObject> collectJobsData(ArmorCodeGlobalConfig config, TaskListener listener)
             throws IOException, InvocationTargetException, IllegalAccessException {
         List<JSONObject> jobsData = new ArrayList<>();
+        List<String> monitoredJobs = new ArrayList<>();
 
         // Get the include/exclude patterns
         String includePattern = config.getIncludeJobsPattern();
         String excludePattern = config.getExcludeJobsPattern();
 
         // Get all jobs from Jenkins
-        for (Job<?, ?> job : Jenkins.get().getAllItems(Job.class)) {
-            String jobName = job.getFullName();
+        branchesUsingArmorCode = new IdentityHashMap<>();
+        try {
+            for (Job<?, ?> job : Jenkins.get().getAllItems(Job.class)) {
+                String jobName = job.getFullName();
+
+                // Apply to include/exclude patterns
+                if (!shouldMonitorJob(jobName, includePattern, excludePattern)) {
+                    continue;
+                }
 
-            // Apply to include/exclude patterns
-            if (!shouldMonitorJob(jobName, includePattern, excludePattern)) {
-                continue;
+                jobsData.add(toJobData(job));
+                monitoredJobs.add(jobName);
             }
+        } finally {
+            branchesUsingArmorCode = null;
+        }
 
-            JSONObject jobData = new JSONObject();
-            jobData.put("jobName", jobName);
+        // Forget verdicts for jobs that were deleted or are no longer monitored
+        ArmorCodeDetectionCache cache = detectionCache();
+        cache.retain(monitoredJobs);
+        cache.save();
 
-            Run<?, ?> lastBuild = job.getLastBuild();
-            if (lastBuild != null) {
-                jobData.put("buildNumber", String.valueOf(lastBuild.getNumber()));
-                jobData.put("lastBuildTimestamp", lastBuild.getTimeInMillis());
-            } else {
-                jobData.put("buildNumber", "0");
-                jobData.put("lastBuildTimestamp", 0);
-            }
+        return jobsData;
+    }
+
+    /**
+     * Collect data about the given jobs, skipping those deleted since or not monitored.
+     */
+    private List<JSONObject> collectChangedJobsData(
+            ArmorCodeGlobalConfig config, List<String> jobNames, TaskListener listener) {
+        List<JSONObject> jobsData = new ArrayList<>();
 
-            jobData.put("buildTool", "JENKINS");
+        String includePattern = config.getIncludeJobsPattern();
+        String excludePattern = config.getExcludeJobsPattern();
 
-            // Add job URL
-            String jobUrl = job.getAbsoluteUrl();
-            if (jobUrl != null && !jobUrl.isEmpty()) {
-                jobData.put("jobURL", jobUrl);
-            } else {
-                // Fallback
-                String jenkinsRootUrl =
-                        jenkins.model.JenkinsLocationConfiguration.get().getUrl();
-                if (jenkinsRootUrl != null && !jenkinsRootUrl.isEmpty()) {
-                    jobData.put("jobURL", jenkinsRootUrl + "job/" + jobName + "/");
-                } else {
-                    LOGGER.warning(
-                            "[ArmorCode] Could not determine Jenkins job URL. Please configure the Jenkins URL in the Jenkins global configuration.");
-                    jobData.put("jobURL", "");
+        branchesUsingArmorCode = new IdentityHashMap<>();
+        try {
+            for (String jobName : jobNames) {
+                Job<?, ?> job = Jenkins.get().getItemByFullName(jobName, Job.class);
+                if (job == null || !shouldMonitorJob(jobName, includePattern, excludePattern)) {
+                    continue;
                 }
+                jobsData.add(toJobData(job));
             }
+        } finally {
+            branchesUsingArmorCode = null;
+        }
 
-            Boolean isJobMapped = isUsingArmorCodePlugin(job);
+        detectionCache().save();
 
-            jobData.put("jobMapped", isJobMapped);
+        return jobsData;
+    }
 
-            jobsData.add(jobData);
+    /**
+     * Bytes of a build log discovery may read per job.
+     */
+    private static long logScanBudget() {
+        ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
+        int kb = config != null
+                ? config.getDiscoveryLogScanKb()
+                : ArmorCodeGlobalConfig.DEFAULT_DISCOVERY_LOG_SCAN_KB;
+        return kb * 1024L;
+    }
+
+    private synchronized ArmorCodeDetectionCache detectionCache() {
+        if (detectionCache == null) {
+            detectionCache = ArmorCodeDetectionCache.load();
         }
+        return detectionCache;
+    }
 
-        return jobsData;
+    /**
+     * Whether this run must scan every job rather than only those that changed.
+     */
+    private boolean isFullScanDue(ArmorCodeGlobalConfig config) {
+        if (!config.isIncrementalDiscovery() || lastFullScanMillis == 0) {
+            return true;
+        }
+        long interval = TimeUnit.HOURS.toMillis(config.getFullDiscoveryIntervalHours());
+        return System.currentTimeMillis() - lastFullScanMillis >= interval;
+    }
+
+    /**
+     * Describes one job for the discovery payload.
+     */
+    private JSONObject toJobData(Job<?, ?> job) {
+        String jobName = job.getFullName();
+        JSONObject jobData = new JSONObject();
+        jobData.put("jobName", jobName);
+
+        Run<?, ?> lastBuild = job.getLastBuild();
+        if (lastBuild != null) {
+            jobData.put("buildNumber", String.valueOf(lastBuild.getNumber()));
+            jobData.put("lastBuildTimestamp", lastBuild.getTimeInMillis());
+        } else {
+            jobData.put("buildNumber", "0");
+            jobData.put("lastBuildTimestamp", 0);
+        }
+
+        jobData.put("buildTool", "JENKINS");
+
+        // Add job URL
+        String jobUrl = job.getAbsoluteUrl();
+        if (jobUrl != null && !jobUrl.isEmpty()) {
+            jobData.put("jobURL", jobUrl);
+        } else {
+            // Fallback
+            String jenkinsRootUrl =
+                    jenkins.model.JenkinsLocationConfiguration.get().getUrl();
+            if (jenkinsRootUrl != null && !jenkinsRootUrl.isEmpty()) {
+                jobData.put("jobURL", jenkinsRootUrl + "job/" + jobName + "/");
+            } else {
+                LOGGER.warning(
+                        "[ArmorCode] Could not determine Jenkins job URL. Please configure the Jenkins URL in the Jenkins global configuration.");
+                jobData.put("jobURL", "");
+            }
+        }
+
+        Boolean isJobMapped = isUsingArmorCodePlugin(job);
+
+        jobData.put("jobMapped", isJobMapped);
+
+        return jobData;
     }
 
     /*
      * Enhanced isUsingArmorCodePlugin method with better multibranch pipeline detection.
      * This method determines if a Jenkins job is using the ArmorCode plugin.
+     * The job's own verdict is cached until its configuration or last build changes; the multibranch
+     * sibling check depends on other jobs and is not cached.
      */
     private boolean isUsingArmorCodePlugin(Job<?, ?> job) {
+        ArmorCodeDetectionCache cache = detectionCache();
+        Boolean cached = cache.lookup(job);
+        boolean used;
+        if (cached != null) {
+            used = cached;
+        } else {
+            used = detectArmorCodeUsage(job);
+            cache.record(job, used);
+        }
+        return used || isUsedByOtherBranch(job);
+    }
+
+    /**
+     * Inspects the job's own configuration and last build for ArmorCode usage.
+     */
+    private boolean detectArmorCodeUsage(Job<?, ?> job) {
         // Method 1: For FreeStyle projects
         try {
             if (job instanceof hudson.model.Project project) {
@@ -267,6 +400,11 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
             LOGGER.log(Level.WARNING, "Error while inspecting job " + job.getFullName(), e);
         }
 
+        // Method 1.5: Builds that ran a gate since Jenkins started, recorded by ArmorCodeGateAction
+        if (ArmorCodeGateAction.isGated(job)) {
+            return true;
+        }
+
         // Method 2: Check for ArmorCode parameters in last build
         try {
             Run<?, ?> lastBuild = job.getLastBuild();
@@ -280,14 +418,9 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
                     }
                 }
 
-                // New Method 2.5: Check for ArmorCode marker file in build directory
-                try {
-                    FilePath markerFile = new FilePath(lastBuild.getRootDir()).child("armorcode-gate-used.txt");
-                    if (markerFile.exists()) {
-                        return true;
-                    }
-                } catch (Exception e) {
-                    LOGGER.log(Level.FINE, "Error checking for marker file in " + job.getFullName(), e);
+                // Method 2.5: Gate usage recorded on the build itself
+                if (lastBuild.getAction(ArmorCodeGateAction.class) != null) {
+                    return true;
                 }
             }
         } catch (Exception e) {
@@ -324,19 +457,11 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
                 // This is critical for multibranch pipelines where the Jenkinsfile might use variables
                 try {
                     Run<?, ?> lastBuild = job.getLastBuild();
-                    if (lastBuild != null) {
+                    // Builds that would have recorded a gate action already answered above without the log
+                    if (lastBuild != null && !detectionCache().isRecordedByAction(lastBuild)) {
                         // Check if the build log contains evidence of ArmorCode execution
-                        try (BufferedReader reader = new BufferedReader(
-                                new InputStreamReader(lastBuild.getLogInputStream(), StandardCharsets.UTF_8))) {
-                            String line;
-                            while ((line = reader.readLine()) != null) {
-                                if (line.contains("=== Starting ArmorCode Release Gate Check ===")
-                                        || line.contains("=== ArmorCode Release Gate ===")
-                                        || line.matches(".*\\[INFO\\]\\s+ArmorCode check passed.*")
-                                        || line.matches(".*\\[BLOCK\\]\\s+SLA check.*")) {
-                                    return true;
-                                }
-                            }
+                        if (ArmorCodeLogProbe.GATE_OUTPUT.matches(lastBuild, logScanBudget())) {
+                            return true;
                         }
 
                         // Also check build actions for evidence of ArmorCode
@@ -371,6 +496,14 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
             LOGGER.log(Level.FINE, "Error checking config for script-based integration", e);
         }
 
+        return false;
+    }
+
+    /**
+     * Whether another branch of the same multibranch project shows signs of ArmorCode in its last build.
+     * During a collection each multibranch project is inspected once and the answer is shared by its branches.
+     */
+    private boolean isUsedByOtherBranch(Job<?, ?> job) {
         // Additional method specifically for multibranch pipeline projects
         try {
             // Get the parent using job.getParent() - works for folders and multibranch jobs
@@ -378,31 +511,16 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
 
             // For multibranch pipelines, the parent is the multibranch project itself
             if (parent.getClass().getName().contains("MultiBranchProject")) {
-                // Check if other branches in the same project use ArmorCode
-                for (Job<?, ?> siblingJob : parent.getAllItems(Job.class)) {
-                    if (siblingJob != job) {
-                        try {
-                            Run<?, ?> siblingBuild = siblingJob.getLastBuild();
-                            if (siblingBuild != null) {
-                                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-                                        siblingBuild.getLogInputStream(), StandardCharsets.UTF_8))) {
-                                    String line;
-                                    while ((line = reader.readLine()) != null) {
-                                        if (line.contains("ArmorCode")
-                                                || line.contains("armorcode")
-                                                || line.contains("armorcodeReleaseGate")) {
-                                            // If a sibling branch uses ArmorCode, this one likely does too
-                                            return true;
-                                        }
-                                    }
-                                }
-                            }
-                        } catch (Exception e) {
-                            // Just log and continue
-                            LOGGER.log(Level.FINE, "Error checking sibling branch for " + job.getFullName(), e);
-                        }
+                Map<hudson.model.ItemGroup<?>, List<Job<?, ?>>> memo = branchesUsingArmorCode;
+                List<Job<?, ?>> users = memo != null ? memo.get(parent) : null;
+                if (users == null) {
+                    users = findBranchesUsingArmorCode(parent);
+                    if (memo != null) {
+                        memo.put(parent, users);
                     }
                 }
+                // If a sibling branch uses ArmorCode, this one likely does too
+                return users.size() > 1 || users.size() == 1 && users.get(0) != job;
             }
         } catch (Exception e) {
             LOGGER.log(Level.FINE, "Error checking parent job for " + job.getFullName(), e);
@@ -411,6 +529,36 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
         return false;
     }
 
+    /**
+     * Branches of a multibranch project whose last build shows signs of ArmorCode. Stops after two, which
+     * is enough to answer {@link #isUsedByOtherBranch} for every branch.
+     */
+    private List<Job<?, ?>> findBranchesUsingArmorCode(hudson.model.ItemGroup<?> parent) {
+        List<Job<?, ?>> users = new ArrayList<>(2);
+        for (Job<?, ?> branch : parent.getAllItems(Job.class)) {
+            try {
+                Run<?, ?> lastBuild = branch.getLastBuild();
+                if (lastBuild == null) {
+                    continue;
+                }
+                // The action only proves a gate ran; a log mentioning ArmorCode in some other way, e.g. a
+                // scanner upload, still counts, so fall back to the log when the action is absent
+                boolean used = lastBuild.getAction(ArmorCodeGateAction.class) != null
+                        || ArmorCodeLogProbe.ANY_MENTION.matches(lastBuild, logScanBudget());
+                if (used) {
+                    users.add(branch);
+                    if (users.size() == 2) {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                // Just log and continue
+                LOGGER.log(Level.FINE, "Error checking sibling branch " + branch.getFullName(), e);
+            }
+        }
+        return users;
+    }
+
     /**
      * Send job data to ArmorCode in batches to handle large numbers of jobs.
      */
@@ -461,7 +609,6 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
      */
     private boolean sendBatch(
             ArmorCodeGlobalConfig config, String token, List<JSONObject> batchJobs, TaskListener listener) {
-        HttpURLConnection conn = null;
         try {
             // Create batch payload
             JSONObject batchPayload = new JSONObject();
@@ -471,40 +618,23 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
             // Build endpoint URL
             String uri = config.getBaseUrl() + "/client/builds/jobs/discovery/monitoring";
 
-            // Set up connection
-            URL url = new URL(uri);
-            conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setRequestProperty("Authorization", "Bearer " + token);
-            conn.setRequestProperty("Accept-Charset", "UTF-8");
-            conn.setDoOutput(true);
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(30000);
-
-            // Write payload
-            try (OutputStream os = conn.getOutputStream()) {
-                os.write(batchPayload.toString().getBytes(StandardCharsets.UTF_8));
-                os.flush();
-            }
+            // Set up request on the shared client
+            HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .header("Accept-Charset", "UTF-8")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            batchPayload.toString().getBytes(StandardCharsets.UTF_8)))
+                    .build();
+            // Only the start of the reply is logged, so there is no point buffering more of it
+            HttpResponse<LimitedBody> response =
+                    ArmorCodeHttpClient.get().send(request, LimitedBody.handler(MAX_LOGGED_RESPONSE_BYTES));
 
             // Check response
-            int responseCode = conn.getResponseCode();
+            int responseCode = response.statusCode();
             if (responseCode != 200) {
-                String errorDetails = "";
-                try (BufferedReader errorReader =
-                        new BufferedReader(new InputStreamReader(conn.getErrorStream(), StandardCharsets.UTF_8))) {
-                    StringBuilder errorResponse = new StringBuilder();
-                    String line;
-                    while ((line = errorReader.readLine()) != null) {
-                        errorResponse.append(line);
-                    }
-                    errorDetails = errorResponse.toString();
-                } catch (IOException ex) {
-                    listener.error("[ArmorCode] Could not read error response: " + ex.getMessage());
-                    LOGGER.log(Level.WARNING, "Could not read error response", ex);
-                }
-
+                String errorDetails = response.body().asText();
                 LOGGER.log(
                         Level.WARNING,
                         "Batch send failed with HTTP " + responseCode
@@ -512,27 +642,17 @@ public class ArmorCodeJobDiscovery extends AsyncPeriodicWork {
                 return false;
             }
 
-            // Read successful response (for logging if needed)
-            try (BufferedReader reader =
-                    new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                String line;
-                StringBuilder response = new StringBuilder();
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                LOGGER.fine("[ArmorCode] Batch sent successfully. Response: " + response.toString());
-            }
-
+            // Log successful response if needed
+            LOGGER.fine("[ArmorCode] Batch sent successfully. Response: " + response.body().asText());
             return true;
 
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             listener.error("[ArmorCode] Error sending batch: " + e.getMessage());
             LOGGER.log(Level.WARNING, "Error sending batch to ArmorCode", e);
             return false;
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
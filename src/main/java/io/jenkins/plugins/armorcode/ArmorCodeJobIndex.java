@@ -0,0 +1,127 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Full names of jobs created, changed, moved or built since the last discovery run, so that incremental
+ * discovery only inspects those jobs. The index lives in memory; events missed while Jenkins was down
+ * are picked up by the full scan that every controller start begins with.
+ */
+final class ArmorCodeJobIndex {
+    private static final Set<String> CHANGED = ConcurrentHashMap.newKeySet();
+
+    private ArmorCodeJobIndex() {}
+
+    static void markChanged(String fullName) {
+        if (isEnabled()) {
+            CHANGED.add(fullName);
+        }
+    }
+
+    static void forget(String fullName) {
+        CHANGED.remove(fullName);
+    }
+
+    /**
+     * Removes and returns the names marked so far; names marked meanwhile are kept for the next run.
+     */
+    static List<String> drain() {
+        List<String> names = new ArrayList<>();
+        for (String name : CHANGED) {
+            if (CHANGED.remove(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Marks jobs again, e.g. when sending them to ArmorCode failed.
+     */
+    static void restore(Collection<String> names) {
+        CHANGED.addAll(names);
+    }
+
+    static int size() {
+        return CHANGED.size();
+    }
+
+    private static boolean isEnabled() {
+        ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
+        return config != null && config.isMonitorBuilds() && config.isIncrementalDiscovery();
+    }
+
+    private static void markJobs(Item item) {
+        if (item instanceof Job<?, ?> job) {
+            markChanged(job.getFullName());
+        } else if (item instanceof ItemGroup<?> group) {
+            // A new folder or multibranch project may already hold jobs
+            for (Job<?, ?> job : group.getAllItems(Job.class)) {
+                markChanged(job.getFullName());
+            }
+        }
+    }
+
+    /**
+     * Marks jobs when they are created, copied, reconfigured, moved or renamed.
+     */
+    @Extension
+    public static class ItemEvents extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            markJobs(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            markJobs(item);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            if (item instanceof Job<?, ?> job) {
+                markChanged(job.getFullName());
+            }
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            forget(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // Also fired for every job inside a moved or renamed folder
+            if (item instanceof Job) {
+                forget(oldFullName);
+                markChanged(newFullName);
+            }
+        }
+    }
+
+    /**
+     * Marks a job when one of its builds completes, as that changes its last build and may change whether
+     * it uses ArmorCode.
+     */
+    @Extension
+    public static class RunEvents extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+            markChanged(run.getParent().getFullName());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.jenkins.plugins.armorcode;
+
+import hudson.model.Run;
+import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * Looks for ArmorCode output in a bounded part of a build log: the first and last half of the byte budget,
+ * or the whole log if it fits. Multi-gigabyte logs are never read in full, at the cost of missing output
+ * buried in the middle of them. The literals are combined into one precompiled pattern matched once per window.
+ */
+final class ArmorCodeLogProbe {
+
+    /**
+     * Lines the release gate itself prints.
+     */
+    static final ArmorCodeLogProbe GATE_OUTPUT = new ArmorCodeLogProbe(Pattern.compile(
+            "=== Starting ArmorCode Release Gate Check ===|=== ArmorCode Release Gate ==="
+                    + "|\\[INFO\\]\\s+ArmorCode check passed|\\[BLOCK\\]\\s+SLA check"));
+
+    /**
+     * Any mention of ArmorCode, e.g. from a script calling its API.
+     */
+    static final ArmorCodeLogProbe ANY_MENTION = new ArmorCodeLogProbe(Pattern.compile("ArmorCode|armorcode"));
+
+    // Each window is read into the heap, so no caller may ask for more than this
+    static final int MAX_BUDGET_BYTES = ArmorCodeGlobalConfig.MAX_DISCOVERY_LOG_SCAN_KB * 1024;
+
+    private final Pattern pattern;
+
+    private ArmorCodeLogProbe(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Whether the bounded part of the build's log matches. The budget is capped at {@link #MAX_BUDGET_BYTES}.
+     */
+    boolean matches(Run<?, ?> build, long budgetBytes) throws IOException {
+        int budget = (int) Math.max(0, Math.min(budgetBytes, MAX_BUDGET_BYTES));
+        File log = build.getLogFile();
+        if (log.isFile() && !log.getName().endsWith(".gz")) {
+            try (FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size <= budget) {
+                    return find(read(channel, 0, (int) size));
+                }
+                int half = budget / 2;
+                return find(read(channel, 0, half)) || find(read(channel, size - half, half));
+            }
+        }
+        // Compressed or externally stored logs can only be streamed from the start
+        try (InputStream in = build.getLogInputStream()) {
+            return find(in.readNBytes(budget));
+        }
+    }
+
+    private boolean find(byte[] window) {
+        // Every literal is ASCII, so a single-byte decoding cannot split a match
+        return pattern.matcher(new String(window, StandardCharsets.ISO_8859_1)).find();
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,242 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.model.Computer;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.RunAction2;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
+
+/**
+ * Gates a build started with {@code armorcodeReleaseGateStart}, keyed by the handle returned to the Pipeline.
+ * Each is checked by an {@link ArmorCodeGatePoller}, so no thread is held while it is on HOLD. The gates and
+ * their outcomes are saved with the build: after a Jenkins restart the gates still running resume polling,
+ * and {@code armorcodeReleaseGateAwait} finds its gate again. Gates never awaited are cancelled when their
+ * build completes.
+ */
+public class ArmorCodePendingGates extends InvisibleAction implements RunAction2 {
+    private static final Logger LOGGER = Logger.getLogger(ArmorCodePendingGates.class.getName());
+
+    private final Map<String, PendingGate> gates = new ConcurrentHashMap<>();
+    private int sequence; // guarded by this
+
+    private transient Run<?, ?> run;
+
+    /**
+     * A gate running in the background, and its outcome once known.
+     */
+    static final class PendingGate implements ArmorCodeGatePoller.Handler {
+        private final String handle;
+        private final ArmorCodeGatePoller poller;
+        private volatile boolean awaited;
+
+        // PASS or FAIL once the gate passed or failed in warn mode, otherwise why it failed; guarded by this
+        private String result;
+        private String failure;
+
+        private transient ArmorCodePendingGates owner;
+        private transient CompletableFuture<String> outcome = new CompletableFuture<>();
+
+        PendingGate(String handle, ArmorCodeGatePoller poller) {
+            this.handle = handle;
+            this.poller = poller;
+        }
+
+        private Object readResolve() {
+            outcome = new CompletableFuture<>();
+            if (result != null) {
+                outcome.complete(result);
+            } else if (failure != null) {
+                outcome.completeExceptionally(new AbortException(failure));
+            }
+            return this;
+        }
+
+        /**
+         * Completes with PASS or FAIL, or exceptionally if the gate failed, could not be checked or was cancelled.
+         */
+        CompletableFuture<String> getOutcome() {
+            return outcome;
+        }
+
+        synchronized boolean isDone() {
+            return result != null || failure != null;
+        }
+
+        void cancel(String reason) {
+            // Also cancels the request in flight
+            poller.cancel();
+            finish(null, new AbortException(reason));
+        }
+
+        private void finish(String verdict, Throwable cause) {
+            synchronized (this) {
+                if (isDone()) {
+                    return;
+                }
+                if (cause == null) {
+                    result = verdict;
+                } else {
+                    failure = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+                }
+            }
+            owner.save();
+            if (cause == null) {
+                outcome.complete(verdict);
+            } else {
+                outcome.completeExceptionally(cause);
+            }
+        }
+
+        @Override
+        public void onVerdict(ArmorCodeReleaseGateBuilder.PollOutcome verdict) {
+            finish(verdict == ArmorCodeReleaseGateBuilder.PollOutcome.PASSED ? "PASS" : "FAIL", null);
+        }
+
+        @Override
+        public void onError(Throwable cause) {
+            finish(null, cause);
+        }
+
+        @Override
+        public void saveState() {
+            owner.save();
+        }
+    }
+
+    /**
+     * Starts the gate in the background and returns its handle. Configuration problems are thrown.
+     * The workspace and environment may be null.
+     */
+    static String start(
+            ArmorCodeReleaseGateBuilder gate, Run<?, ?> run, FilePath workspace, EnvVars envVars, TaskListener listener)
+            throws Exception {
+        ArmorCodePendingGates action;
+        synchronized (ArmorCodePendingGates.class) {
+            action = run.getAction(ArmorCodePendingGates.class);
+            if (action == null) {
+                action = new ArmorCodePendingGates();
+                run.addAction(action);
+            }
+        }
+        String handle = "armorcode-gate-" + run.getExternalizableId() + "-" + action.nextSequence();
+        PendingGate pending = new PendingGate(handle, new ArmorCodeGatePoller(gate));
+        pending.owner = action;
+        action.gates.put(handle, pending);
+        try {
+            pending.poller.start(run, listener, workspace, envVars, pending);
+        } catch (Exception e) {
+            action.gates.remove(handle);
+            throw e;
+        }
+        return handle;
+    }
+
+    private synchronized int nextSequence() {
+        return ++sequence;
+    }
+
+    /**
+     * Marks the gate with the given handle as awaited and returns it, or null if it is unknown or was
+     * already awaited.
+     */
+    PendingGate await(String handle) {
+        PendingGate pending = handle != null ? gates.get(handle) : null;
+        synchronized (this) {
+            if (pending == null || pending.awaited) {
+                return null;
+            }
+            pending.awaited = true;
+        }
+        save();
+        return pending;
+    }
+
+    /**
+     * The gate with the given handle, awaited or not, or null if it is unknown.
+     */
+    PendingGate get(String handle) {
+        return handle != null ? gates.get(handle) : null;
+    }
+
+    private void save() {
+        if (run == null) {
+            return;
+        }
+        try {
+            run.save();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[ArmorCode] Could not save the background release gates of " + run, e);
+        }
+    }
+
+    @Override
+    public void onAttached(Run<?, ?> run) {
+        this.run = run;
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> run) {
+        this.run = run;
+        boolean running = false;
+        for (PendingGate pending : gates.values()) {
+            pending.owner = this;
+            running |= !pending.isDone();
+        }
+        if (running && run.isBuilding()) {
+            // Let the build finish loading before writing to its log
+            Computer.threadPoolForRemoting.submit(this::resumeGates);
+        }
+    }
+
+    private void resumeGates() {
+        TaskListener listener;
+        try {
+            listener = run instanceof FlowExecutionOwner.Executable executable
+                    ? executable.asFlowExecutionOwner().getListener()
+                    : TaskListener.NULL;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[ArmorCode] Could not open the log of " + run, e);
+            listener = TaskListener.NULL;
+        }
+        for (PendingGate pending : gates.values()) {
+            if (!pending.isDone()) {
+                // No workspace is available yet, so a gate set to run on the agent falls back to the controller
+                pending.poller.resume(run, listener, null, pending);
+            }
+        }
+    }
+
+    /**
+     * Cancels the gates a finished build left running, e.g. because they were never awaited.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+            ArmorCodePendingGates action = run.getAction(ArmorCodePendingGates.class);
+            if (action == null) {
+                return;
+            }
+            for (PendingGate pending : action.gates.values()) {
+                if (!pending.isDone()) {
+                    LOGGER.fine("[ArmorCode] Cancelling release gate " + pending.handle + " that was never awaited");
+                    pending.cancel("ArmorCode release gate " + pending.handle + " was cancelled");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.Computer;
+import hudson.model.Environment;
+import hudson.model.InvisibleAction;
+import hudson.model.Job;
+import hudson.model.ParameterValue;
+import hudson.model.ParametersAction;
+import hudson.model.Queue;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import hudson.model.queue.CauseOfBlockage;
+import hudson.model.queue.QueueListener;
+import hudson.model.queue.QueueTaskDispatcher;
+import hudson.util.LogTaskListener;
+import io.jenkins.plugins.armorcode.credentials.CredentialsUtils;
+import io.jenkins.plugins.armorcode.gate.CircuitOpenException;
+import io.jenkins.plugins.armorcode.gate.GateDeadline;
+import io.jenkins.plugins.armorcode.gate.GatePayload;
+import io.jenkins.plugins.armorcode.gate.GateResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.Timer;
+import org.jenkinsci.plugins.workflow.flow.StepListener;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+
+/**
+ * Holds builds of jobs with an {@link ArmorCodeQueueGateJobProperty} in the queue until ArmorCode releases them.
+ * Evaluation starts as soon as an item enters the queue and runs off the queue lock; {@link #canRun}
+ * only reads the latest verdict. On a FAILED verdict warn mode lets the build start and marks it UNSTABLE.
+ * Block mode also lets the build start, so the user sees the gate output in its log, but fails it before
+ * any build step runs. While the circuit breaker is open, a {@code fail} fallback does the same unless the
+ * gate is in warn mode; otherwise the build starts and the fallback is applied to it.
+ */
+@Extension
+public class ArmorCodeQueueGateDispatcher extends QueueTaskDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(ArmorCodeQueueGateDispatcher.class.getName());
+
+    // Request-level messages have no build log yet, so they go to the system log
+    private static final TaskListener SYSTEM_LOG = new LogTaskListener(LOGGER, Level.FINE);
+
+    // Keyed by queue item id; entries survive until the build starts or the item is cancelled
+    private static final Map<Long, QueueGateEvaluation> EVALUATIONS = new ConcurrentHashMap<>();
+
+    @Override
+    public CauseOfBlockage canRun(Queue.Item item) {
+        ArmorCodeQueueGateJobProperty property = getGateProperty(item);
+        if (property == null) {
+            return null;
+        }
+        QueueGateEvaluation evaluation = startEvaluation(item, property);
+        if (evaluation.released) {
+            return null;
+        }
+        return new BlockedByArmorCode(evaluation.describe());
+    }
+
+    private static ArmorCodeQueueGateJobProperty getGateProperty(Queue.Item item) {
+        if (item.task instanceof Job<?, ?> job) {
+            return job.getProperty(ArmorCodeQueueGateJobProperty.class);
+        }
+        return null;
+    }
+
+    private static QueueGateEvaluation startEvaluation(Queue.Item item, ArmorCodeQueueGateJobProperty property) {
+        QueueGateEvaluation existing = EVALUATIONS.get(item.getId());
+        if (existing != null) {
+            return existing;
+        }
+        QueueGateEvaluation created =
+                new QueueGateEvaluation((Job<?, ?>) item.task, property.toBuilder(), revisionOf(item));
+        existing = EVALUATIONS.putIfAbsent(item.getId(), created);
+        if (existing != null) {
+            return existing;
+        }
+        created.schedulePoll(0);
+        return created;
+    }
+
+    /**
+     * The revision to build, if the item carries it as a parameter such as {@code GIT_COMMIT}.
+     * Queued builds have no environment yet, so this is the only place the verdict cache can look.
+     */
+    private static String revisionOf(Queue.Item item) {
+        ParametersAction parameters = item.getAction(ParametersAction.class);
+        if (parameters == null) {
+            return null;
+        }
+        EnvVars values = new EnvVars();
+        for (ParameterValue parameter : parameters.getParameters()) {
+            if (parameter.getValue() instanceof String value) {
+                values.put(parameter.getName(), value);
+            }
+        }
+        return ArmorCodeReleaseGateBuilder.resolveRevision(values);
+    }
+
+    /**
+     * Marks a build whose gate failed in block mode while it was queued. Its steps are not run.
+     */
+    static final class Rejection extends InvisibleAction {
+        private final String reason;
+
+        Rejection(String reason) {
+            this.reason = reason;
+        }
+
+        String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * Shown as the reason the build is waiting in the queue.
+     */
+    static final class BlockedByArmorCode extends CauseOfBlockage {
+        private final String reason;
+
+        BlockedByArmorCode(String reason) {
+            this.reason = reason;
+        }
+
+        @Override
+        public String getShortDescription() {
+            return "Blocked by ArmorCode release gate: " + reason;
+        }
+    }
+
+    /**
+     * Polling state for one queue item.
+     */
+    private static final class QueueGateEvaluation {
+        private final Job<?, ?> job;
+        private final ArmorCodeReleaseGateBuilder gate;
+        private final GateDeadline deadline;
+        private final String revision;
+
+        private volatile int attempt;
+        private volatile String lastStatus = "PENDING";
+        private volatile Future<?> pending;
+        private volatile GatePayload payload;
+
+        // Set once a final verdict lets the build run; the verdict is applied to the build when it starts
+        private volatile boolean released;
+        private volatile String gateResult;
+        private volatile GateResponse verdict;
+        private volatile String rejection;
+
+        QueueGateEvaluation(Job<?, ?> job, ArmorCodeReleaseGateBuilder gate, String revision) {
+            this.job = job;
+            this.gate = gate;
+            this.deadline = gate.newDeadline();
+            this.revision = revision;
+        }
+
+        String describe() {
+            if (attempt == 0) {
+                return "waiting for first verdict";
+            }
+            return lastStatus + " (attempt " + attempt + " of " + gate.getMaxRetries() + ")";
+        }
+
+        void schedulePoll(long delaySeconds) {
+            if (delaySeconds <= 0) {
+                pending = Computer.threadPoolForRemoting.submit(this::poll);
+                return;
+            }
+            pending = Timer.get()
+                    .schedule(
+                            () -> {
+                                pending = Computer.threadPoolForRemoting.submit(this::poll);
+                            },
+                            delaySeconds,
+                            TimeUnit.SECONDS);
+        }
+
+        void cancel() {
+            Future<?> current = pending;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+
+        private void poll() {
+            if (deadline.isExpired()) {
+                reject(null, "timed out before a verdict was returned (last status was " + lastStatus + ")");
+                Queue.getInstance().scheduleMaintenance();
+                return;
+            }
+            attempt++;
+            final int maxRetries = gate.getMaxRetries();
+            try {
+                String token = CredentialsUtils.getArmorCodeToken(job);
+                gate.validateSecurityPrerequisites(token);
+                String apiUrl = gate.resolveApiUrl();
+
+                // A revision that already passed this gate recently is released without a round trip
+                String cacheKey = gate.verdictCacheKey(token, apiUrl, revision);
+                GateResponse cached = ArmorCodeReleaseGateBuilder.cachedVerdict(cacheKey);
+                if (cached != null) {
+                    lastStatus = cached.getStatus();
+                    release("PASS", cached);
+                    Queue.getInstance().scheduleMaintenance();
+                    return;
+                }
+
+                // The next build number moves on if another build of the job starts meanwhile
+                payload = gate.payloadFor(
+                        payload, String.valueOf(job.getNextBuildNumber()), job.getFullName(), resolveJobUrl(job));
+                GateResponse response = gate.requestGateStatus(
+                        SYSTEM_LOG,
+                        payload,
+                        token,
+                        attempt,
+                        apiUrl,
+                        deadline.attemptTimeout(ArmorCodeReleaseGateBuilder.requestTimeout()));
+                lastStatus = response.getStatus();
+
+                if (response.isHold()) {
+                    if (attempt >= maxRetries) {
+                        reject(response, "did not pass after " + maxRetries + " retries (last status was HOLD)");
+                    } else {
+                        schedulePoll(deadline.clampDelaySeconds(gate.holdDelaySeconds(attempt, response)));
+                    }
+                } else if (response.isFailed()) {
+                    reject(response, "SLA check failed");
+                } else {
+                    ArmorCodeReleaseGateBuilder.cacheVerdict(cacheKey, response);
+                    release("PASS", response);
+                }
+            } catch (AbortException e) {
+                // Incomplete configuration cannot be fixed by retrying
+                lastStatus = "ERROR";
+                reject(null, e.getMessage());
+            } catch (CircuitOpenException e) {
+                lastStatus = "UNAVAILABLE";
+                if (gate.isCircuitFallbackLenient()) {
+                    // The fallback verdict is applied once the build starts
+                    release("FALLBACK", null);
+                } else {
+                    // Fail closed: a gate in block mode must not let the build's steps run
+                    reject(null, "ArmorCode is unavailable (circuit breaker open)");
+                }
+            } catch (InterruptedException e) {
+                // The queue item was cancelled while the request was in flight
+                return;
+            } catch (Exception e) {
+                lastStatus = "ERROR";
+                LOGGER.log(Level.FINE, "[ArmorCode] Queue gate request failed for " + job.getFullName(), e);
+                if (attempt >= maxRetries) {
+                    reject(null, "ArmorCode request error after maximum retries.");
+                } else {
+                    schedulePoll(deadline.clampDelaySeconds(gate.errorDelaySeconds(attempt, e)));
+                }
+            }
+            // Let the queue pick up the new verdict without waiting for its periodic maintenance
+            Queue.getInstance().scheduleMaintenance();
+        }
+
+        private void release(String result, GateResponse response) {
+            gateResult = result;
+            verdict = response;
+            released = true;
+        }
+
+        private void reject(GateResponse response, String reason) {
+            if ("warn".equalsIgnoreCase(gate.getMode())) {
+                // The build runs and is marked UNSTABLE when it starts
+                release("FAIL", response);
+                return;
+            }
+            // The build starts only to record the failure where the user looks for it; its steps do not run
+            LOGGER.info("[ArmorCode] Release gate failed for queued build of " + job.getFullName() + ": " + reason);
+            rejection = reason;
+            release("REJECTED", response);
+        }
+
+        /**
+         * Records the queue-time verdict on the build, mirroring what the build step would have logged.
+         */
+        void applyTo(Run<?, ?> run, TaskListener listener) {
+            if ("FALLBACK".equals(gateResult)) {
+                try {
+                    gate.applyCircuitFallback(run, listener);
+                } catch (AbortException e) {
+                    LOGGER.log(Level.FINE, "[ArmorCode] Fallback verdict failed " + run, e);
+                }
+                return;
+            }
+            listener.getLogger().println("=== ArmorCode Release Gate ===");
+            listener.getLogger().println("Status: " + lastStatus + " (evaluated while the build was queued)");
+            if ("REJECTED".equals(gateResult)) {
+                if (verdict != null) {
+                    listener.getLogger()
+                            .println(gate.formatDetailedErrorMessage(
+                                    String.valueOf(run.getNumber()), run.getParent().getFullName(), verdict));
+                }
+                listener.getLogger()
+                        .println("[BLOCK] ArmorCode release gate failed: " + rejection
+                                + " => Failing the build before any of its steps run.");
+                gate.saveGateInfoToProperties(run, "FAIL");
+                run.setResult(Result.FAILURE);
+                run.addAction(new Rejection(rejection));
+                return;
+            }
+            if ("PASS".equals(gateResult)) {
+                listener.getLogger().println("[INFO] ArmorCode check passed! Proceeding...");
+                gate.saveGateInfoToProperties(run, "PASS");
+                return;
+            }
+            try {
+                if (verdict != null) {
+                    listener.getLogger()
+                            .println(gate.formatDetailedErrorMessage(
+                                    String.valueOf(run.getNumber()), run.getParent().getFullName(), verdict));
+                }
+                gate.saveGateInfoToProperties(run, "FAIL");
+                gate.handleFailureMode(run, listener);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "[ArmorCode] Could not apply queue gate verdict to " + run, e);
+            }
+        }
+
+        private static String resolveJobUrl(Job<?, ?> job) {
+            try {
+                return job.getAbsoluteUrl();
+            } catch (IllegalStateException e) {
+                // Jenkins root URL is not configured
+                return "";
+            }
+        }
+    }
+
+    /**
+     * Starts evaluating as soon as the build is scheduled, so the check overlaps the quiet period,
+     * and drops state for cancelled items.
+     */
+    @Extension
+    public static class QueueListenerImpl extends QueueListener {
+
+        @Override
+        public void onEnterWaiting(Queue.WaitingItem wi) {
+            ArmorCodeQueueGateJobProperty property = getGateProperty(wi);
+            if (property != null) {
+                startEvaluation(wi, property);
+            }
+        }
+
+        @Override
+        public void onLeft(Queue.LeftItem li) {
+            if (li.isCancelled()) {
+                QueueGateEvaluation evaluation = EVALUATIONS.remove(li.getId());
+                if (evaluation != null) {
+                    evaluation.cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the queue-time verdict to the build once it has a log.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onStarted(Run<?, ?> run, @NonNull TaskListener listener) {
+            QueueGateEvaluation evaluation = EVALUATIONS.remove(run.getQueueId());
+            if (evaluation != null && evaluation.released) {
+                evaluation.applyTo(run, listener);
+            }
+        }
+
+        /**
+         * Stops a freestyle build rejected in the queue before its workspace is checked out.
+         */
+        @Override
+        public Environment setUpEnvironment(AbstractBuild build, Launcher launcher, BuildListener listener)
+                throws IOException, InterruptedException, Run.RunnerAbortedException {
+            if (build.getAction(Rejection.class) != null) {
+                throw new Run.RunnerAbortedException();
+            }
+            return super.setUpEnvironment(build, launcher, listener);
+        }
+    }
+
+    /**
+     * Fails every step of a Pipeline rejected in the queue, so not even {@code post} sections deploy anything.
+     */
+    @Extension
+    public static class StepListenerImpl implements StepListener {
+
+        @Override
+        public void notifyOfNewStep(@NonNull Step step, @NonNull StepContext context) {
+            try {
+                Run<?, ?> run = context.get(Run.class);
+                Rejection rejection = run != null ? run.getAction(Rejection.class) : null;
+                if (rejection != null) {
+                    context.onFailure(
+                            new AbortException("ArmorCode release gate failed: " + rejection.getReason()));
+                }
+            } catch (IOException | InterruptedException e) {
+                LOGGER.log(Level.FINE, "[ArmorCode] Could not check for a queue gate rejection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.JobProperty;
+import hudson.model.JobPropertyDescriptor;
+import net.sf.json.JSONObject;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.StaplerRequest2;
+
+/**
+ * Job-level release gate evaluated while the build is still in the queue.
+ * Builds of a job with this property do not get an executor until ArmorCode releases them,
+ * see {@link ArmorCodeQueueGateDispatcher}.
+ */
+public class ArmorCodeQueueGateJobProperty extends JobProperty<Job<?, ?>> {
+
+    // Required parameters
+    private final String product;
+    private final Object subProducts;
+    private final String env;
+
+    // Optional parameters with default values
+    private int maxRetries = 5;
+    private String mode = "block";
+    private String targetUrl;
+    private int retryDelay = 20; // seconds
+    private int maxRetryDelay; // seconds, 0 uses the global default
+    private int timeout; // seconds, 0 uses the global default
+    private boolean useCache = true;
+    private boolean runOnAgent;
+
+    @DataBoundConstructor
+    public ArmorCodeQueueGateJobProperty(String product, Object subProducts, String env) {
+        this.product = product;
+        this.subProducts = subProducts;
+        this.env = env;
+    }
+
+    @DataBoundSetter
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries > 0 ? maxRetries : 5;
+    }
+
+    @DataBoundSetter
+    public void setMode(String mode) {
+        this.mode = mode != null ? mode : "block";
+    }
+
+    @DataBoundSetter
+    public void setTargetUrl(String targetUrl) {
+        this.targetUrl = targetUrl;
+    }
+
+    @DataBoundSetter
+    public void setRetryDelay(int retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    @DataBoundSetter
+    public void setMaxRetryDelay(int maxRetryDelay) {
+        this.maxRetryDelay = Math.max(0, maxRetryDelay);
+    }
+
+    @DataBoundSetter
+    public void setTimeout(int timeout) {
+        this.timeout = Math.max(0, timeout);
+    }
+
+    @DataBoundSetter
+    public void setUseCache(boolean useCache) {
+        this.useCache = useCache;
+    }
+
+    @DataBoundSetter
+    public void setRunOnAgent(boolean runOnAgent) {
+        this.runOnAgent = runOnAgent;
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    public Object getSubProducts() {
+        return subProducts;
+    }
+
+    public String getEnv() {
+        return env;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public String getTargetUrl() {
+        // Return null if empty so it doesn't appear in snippet generator
+        return (targetUrl == null || targetUrl.isBlank()) ? null : targetUrl;
+    }
+
+    public int getRetryDelay() {
+        return retryDelay;
+    }
+
+    public int getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
+
+    public boolean isRunOnAgent() {
+        return runOnAgent;
+    }
+
+    /**
+     * Creates a builder with the same configuration, which owns request and verdict handling.
+     */
+    ArmorCodeReleaseGateBuilder toBuilder() {
+        ArmorCodeReleaseGateBuilder builder = new ArmorCodeReleaseGateBuilder(product, subProducts, env);
+        builder.setMaxRetries(maxRetries);
+        builder.setMode(mode);
+        builder.setTargetUrl(targetUrl);
+        builder.setRetryDelay(retryDelay);
+        builder.setMaxRetryDelay(maxRetryDelay);
+        builder.setTimeout(timeout);
+        builder.setUseCache(useCache);
+        builder.setRunOnAgent(runOnAgent);
+        return builder;
+    }
+
+    @Extension
+    @Symbol("armorcodeQueueGate")
+    public static class DescriptorImpl extends JobPropertyDescriptor {
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "ArmorCode Queue Release Gate";
+        }
+
+        /**
+         * The gate is configured inside an optional block, so an unchecked block removes the property.
+         */
+        @Override
+        public JobProperty<?> newInstance(StaplerRequest2 req, @NonNull JSONObject formData) throws FormException {
+            JSONObject gate = formData.optJSONObject("armorcodeQueueGate");
+            if (gate == null || gate.isNullObject()) {
+                return null;
+            }
+            return super.newInstance(req, gate);
+        }
+
+        /**
+         * Populates the mode dropdown with available options.
+         */
+        public hudson.util.ListBoxModel doFillModeItems() {
+            return ArmorCodeReleaseGateBuilder.modeItems();
+        }
+    }
+}
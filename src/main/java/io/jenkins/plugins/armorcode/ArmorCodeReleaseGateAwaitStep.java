@@ -0,0 +1,145 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Pipeline implementation of {@code armorcodeReleaseGateAwait}.
+ * Waits for a gate started by {@code armorcodeReleaseGateStart} without holding a thread and applies its
+ * verdict: a failure in block mode, or a gate that could not be checked, fails the step. Returns
+ * {@code PASS} or {@code FAIL}, the latter only in warn mode. The gate is saved with the build, so the step
+ * keeps waiting for it after a Jenkins restart.
+ */
+public class ArmorCodeReleaseGateAwaitStep extends Step {
+
+    private final String handle;
+
+    @DataBoundConstructor
+    public ArmorCodeReleaseGateAwaitStep(String handle) {
+        this.handle = handle;
+    }
+
+    public String getHandle() {
+        return handle;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(context, handle);
+    }
+
+    private static class Execution extends AbstractStepExecutionImpl {
+        private static final long serialVersionUID = 1L;
+
+        private final String handle;
+        private transient ArmorCodePendingGates.PendingGate pending;
+
+        // Stopping the step also completes the gate's future; only the first outcome is reported
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        Execution(StepContext context, String handle) {
+            super(context);
+            this.handle = handle;
+        }
+
+        @Override
+        public boolean start() throws Exception {
+            ArmorCodePendingGates gates = getContext().get(Run.class).getAction(ArmorCodePendingGates.class);
+            pending = gates != null ? gates.await(handle) : null;
+            if (pending == null) {
+                throw new AbortException("Unknown ArmorCode release gate handle " + handle
+                        + "; it was already awaited or did not come from armorcodeReleaseGateStart");
+            }
+            TaskListener listener = getContext().get(TaskListener.class);
+            listener.getLogger().println("Waiting for ArmorCode release gate " + handle);
+            attach();
+            return false;
+        }
+
+        private void attach() {
+            pending.getOutcome().whenComplete((result, error) -> {
+                if (error == null) {
+                    succeed(result);
+                } else if (error instanceof CompletionException && error.getCause() != null) {
+                    fail(error.getCause());
+                } else {
+                    fail(error);
+                }
+            });
+        }
+
+        private void succeed(String result) {
+            if (completed.compareAndSet(false, true)) {
+                getContext().onSuccess(result);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            if (completed.compareAndSet(false, true)) {
+                getContext().onFailure(cause);
+            }
+        }
+
+        @Override
+        public void stop(@NonNull Throwable cause) throws Exception {
+            fail(cause);
+            if (pending != null) {
+                pending.cancel("ArmorCode release gate " + handle + " was cancelled");
+            }
+        }
+
+        @Override
+        public void onResume() {
+            // The gate was saved with the build and resumes polling on its own
+            try {
+                ArmorCodePendingGates gates = getContext().get(Run.class).getAction(ArmorCodePendingGates.class);
+                pending = gates != null ? gates.get(handle) : null;
+            } catch (Exception e) {
+                fail(e);
+                return;
+            }
+            if (pending == null) {
+                fail(new AbortException("ArmorCode release gate " + handle + " was lost in a Jenkins restart"));
+                return;
+            }
+            attach();
+        }
+
+        @Override
+        public String getStatus() {
+            return "Waiting for ArmorCode release gate " + handle;
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(Run.class, TaskListener.class);
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "armorcodeReleaseGateAwait";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Await ArmorCode Release Gate started in the background";
+        }
+    }
+}
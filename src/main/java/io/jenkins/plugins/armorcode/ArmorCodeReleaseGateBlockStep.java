@@ -0,0 +1,74 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.Set;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Pipeline implementation of {@code withArmorCodeReleaseGate}.
+ * Runs its body while the same check as {@code armorcodeReleaseGate} polls ArmorCode, so packaging or
+ * staging work overlaps the wait. The verdict is applied once both have finished; with
+ * {@code cancelOnFailure} a failure in block mode stops the body straight away.
+ */
+public class ArmorCodeReleaseGateBlockStep extends ArmorCodeReleaseGateStep {
+
+    private boolean cancelOnFailure;
+
+    @DataBoundConstructor
+    public ArmorCodeReleaseGateBlockStep(String product, Object subProducts, String env) {
+        super(product, subProducts, env);
+    }
+
+    @DataBoundSetter
+    public void setCancelOnFailure(boolean cancelOnFailure) {
+        this.cancelOnFailure = cancelOnFailure;
+    }
+
+    public boolean isCancelOnFailure() {
+        return cancelOnFailure;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new ArmorCodeReleaseGateBlockStepExecution(context, toBuilder(), cancelOnFailure);
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(Run.class, TaskListener.class);
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "withArmorCodeReleaseGate";
+        }
+
+        @Override
+        public boolean takesImplicitBlockArgument() {
+            return true;
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Run steps while the ArmorCode Release Gate is checked";
+        }
+
+        /**
+         * Populates the mode dropdown with available options.
+         */
+        public hudson.util.ListBoxModel doFillModeItems() {
+            return ArmorCodeReleaseGateBuilder.modeItems();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
+import org.jenkinsci.plugins.workflow.steps.BodyExecution;
+import org.jenkinsci.plugins.workflow.steps.BodyExecutionCallback;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+
+/**
+ * Execution of {@link ArmorCodeReleaseGateBlockStep}.
+ * The body runs as usual while an {@link ArmorCodeGatePoller} checks the gate. The step completes when both
+ * are done: with the gate's failure if there was one, otherwise with the body's outcome. A failing body
+ * stops the gate, since its verdict no longer matters. The poller and both outcomes are saved with the
+ * build, so after a controller restart the gate resumes alongside the body.
+ */
+public class ArmorCodeReleaseGateBlockStepExecution extends AbstractStepExecutionImpl {
+    private static final long serialVersionUID = 1L;
+
+    private final ArmorCodeGatePoller poller;
+    private final boolean cancelOnFailure;
+
+    private BodyExecution body;
+    private transient TaskListener listener;
+
+    // Outcomes, guarded by this
+    private boolean gateDone;
+    private Throwable gateFailure;
+    private boolean bodyDone;
+    private Object bodyResult;
+    private Throwable bodyFailure;
+    private boolean completed;
+
+    ArmorCodeReleaseGateBlockStepExecution(
+            StepContext context, ArmorCodeReleaseGateBuilder gate, boolean cancelOnFailure) {
+        super(context);
+        this.poller = new ArmorCodeGatePoller(gate);
+        this.cancelOnFailure = cancelOnFailure;
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        // Configuration problems fail the step before the body starts
+        poller.start(
+                getContext().get(Run.class),
+                listener(),
+                getContext().get(FilePath.class),
+                getContext().get(EnvVars.class),
+                new GateHandler());
+        BodyExecution started = getContext().newBodyInvoker().withCallback(new Callback()).start();
+        synchronized (this) {
+            body = started;
+        }
+        // The gate may already have failed while the body was being started
+        cancelBodyIfGateFailed();
+        return false;
+    }
+
+    private TaskListener listener() throws IOException, InterruptedException {
+        if (listener == null) {
+            listener = getContext().get(TaskListener.class);
+        }
+        return listener;
+    }
+
+    private void onGateDone(Throwable failure) {
+        synchronized (this) {
+            if (gateDone) {
+                // Stopped because the body failed
+                return;
+            }
+            gateDone = true;
+            gateFailure = failure;
+        }
+        cancelBodyIfGateFailed();
+        completeIfDone();
+    }
+
+    private void cancelBodyIfGateFailed() {
+        BodyExecution toCancel;
+        synchronized (this) {
+            if (!cancelOnFailure || gateFailure == null || bodyDone || body == null) {
+                return;
+            }
+            toCancel = body;
+        }
+        log("[BLOCK] ArmorCode release gate failed => Stopping the steps it wraps.");
+        toCancel.cancel(new AbortException("Stopped because the ArmorCode release gate failed"));
+    }
+
+    private void onBodyDone(Object result, Throwable failure) {
+        boolean stopGate;
+        synchronized (this) {
+            bodyDone = true;
+            bodyResult = result;
+            bodyFailure = failure;
+            stopGate = failure != null && !gateDone;
+            if (stopGate) {
+                gateDone = true;
+            }
+        }
+        if (stopGate) {
+            poller.cancel();
+            log("[INFO] The steps wrapped by the ArmorCode release gate failed => No longer waiting for its verdict.");
+        } else if (failure == null) {
+            synchronized (this) {
+                if (!gateDone) {
+                    log("[INFO] Waiting for the ArmorCode release gate verdict...");
+                }
+            }
+        }
+        completeIfDone();
+    }
+
+    private void completeIfDone() {
+        synchronized (this) {
+            if (completed || !gateDone || !bodyDone) {
+                return;
+            }
+            completed = true;
+        }
+        if (gateFailure != null) {
+            getContext().onFailure(gateFailure);
+        } else if (bodyFailure != null) {
+            getContext().onFailure(bodyFailure);
+        } else {
+            getContext().onSuccess(bodyResult);
+        }
+    }
+
+    private void log(String message) {
+        try {
+            listener().getLogger().println(message);
+        } catch (IOException | InterruptedException e) {
+            // Only the log line is lost
+        }
+    }
+
+    private class Callback extends BodyExecutionCallback {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onSuccess(StepContext context, Object result) {
+            onBodyDone(result, null);
+        }
+
+        @Override
+        public void onFailure(StepContext context, Throwable t) {
+            onBodyDone(null, t);
+        }
+    }
+
+    /**
+     * Records the gate's outcome; a failure in warn mode counts as done without a failure.
+     */
+    private class GateHandler implements ArmorCodeGatePoller.Handler {
+        @Override
+        public void onVerdict(ArmorCodeReleaseGateBuilder.PollOutcome outcome) {
+            onGateDone(null);
+        }
+
+        @Override
+        public void onError(Throwable cause) {
+            onGateDone(cause);
+        }
+
+        @Override
+        public void saveState() {
+            getContext().saveState();
+        }
+    }
+
+    @Override
+    public void stop(@NonNull Throwable cause) throws Exception {
+        // Also cancels the gate's request in flight
+        poller.cancel();
+        BodyExecution running;
+        synchronized (this) {
+            running = body;
+        }
+        if (running != null) {
+            running.cancel(cause);
+        }
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+        }
+        getContext().onFailure(cause);
+    }
+
+    @Override
+    public void onResume() {
+        // The body resumes by itself; the gate continues polling unless it had finished
+        synchronized (this) {
+            if (completed || gateDone) {
+                return;
+            }
+        }
+        Run<?, ?> run;
+        FilePath workspace;
+        try {
+            run = getContext().get(Run.class);
+            // Only a gate that sends from the agent needs it, and it is absent while the agent reconnects
+            workspace = poller.getGate().isRunOnAgent() ? getContext().get(FilePath.class) : null;
+            listener();
+        } catch (Exception e) {
+            onGateDone(e);
+            return;
+        }
+        poller.resume(run, listener, workspace, new GateHandler());
+    }
+
+    @Override
+    public String getStatus() {
+        synchronized (this) {
+            if (bodyDone && !gateDone) {
+                return "Waiting for ArmorCode release gate verdict";
+            }
+        }
+        return "Running steps while the ArmorCode release gate is checked";
+    }
+}
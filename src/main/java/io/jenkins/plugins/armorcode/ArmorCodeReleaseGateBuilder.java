@@ -2,9 +2,11 @@ package io.jenkins.plugins.armorcode;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.AbortException;
+import hudson.EnvVars;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.Util;
 import hudson.model.ParameterValue;
 import hudson.model.ParametersAction;
 import hudson.model.Result;
@@ -16,34 +18,52 @@ import hudson.tasks.BuildStepMonitor;
 import hudson.tasks.Builder;
 import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
 import io.jenkins.plugins.armorcode.credentials.CredentialsUtils;
-import java.io.BufferedReader;
+import io.jenkins.plugins.armorcode.gate.BackoffPolicy;
+import io.jenkins.plugins.armorcode.gate.CircuitOpenException;
+import io.jenkins.plugins.armorcode.gate.GateCallbackRegistry;
+import io.jenkins.plugins.armorcode.gate.GateCircuitBreaker;
+import io.jenkins.plugins.armorcode.gate.GateDeadline;
+import io.jenkins.plugins.armorcode.gate.GateExchange;
+import io.jenkins.plugins.armorcode.gate.GateHttpException;
+import io.jenkins.plugins.armorcode.gate.GatePayload;
+import io.jenkins.plugins.armorcode.gate.GateRequestCoalescer;
+import io.jenkins.plugins.armorcode.gate.GateRequestLimiter;
+import io.jenkins.plugins.armorcode.gate.GateResponse;
+import io.jenkins.plugins.armorcode.gate.GateVerdictCache;
+import io.jenkins.plugins.armorcode.gate.RetryAfterException;
+import io.jenkins.plugins.armorcode.http.ArmorCodeHttpClient;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import jenkins.tasks.SimpleBuildStep;
-import net.sf.json.JSONObject;
-import net.sf.json.JSONSerializer;
-import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
 public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildStep {
     private static final Logger LOGGER = Logger.getLogger(ArmorCodeReleaseGateBuilder.class.getName());
 
+    // Environment variables that identify the revision being built, in order of preference
+    private static final String[] REVISION_VARIABLES = {"GIT_COMMIT", "SVN_REVISION", "MERCURIAL_REVISION"};
+
     // Required parameters
     private final String product;
     private final Object subProducts;
     private final String env;
 
+    // Sub-products as configured, normalized once: trimmed, deduplicated and sorted
+    private transient List<String> subProductList;
+    private transient String subProductsKey;
+
     // Optional parameters with default values
     private int maxRetries = 5; // How many times to poll before giving up
     private String mode = "block"; // "block" or "warn"
@@ -69,6 +89,34 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
         this.product = product;
         this.subProducts = subProducts;
         this.env = env;
+        normalizeSubProducts();
+    }
+
+    protected Object readResolve() {
+        normalizeSubProducts();
+        return this;
+    }
+
+    /**
+     * Turns the configured sub-products, which may be a list (Pipeline) or newline-separated text (UI),
+     * into the canonical list and key used for requests, caching, coalescing and logging.
+     */
+    private void normalizeSubProducts() {
+        java.util.stream.Stream<?> values;
+        if (subProducts == null) {
+            values = java.util.stream.Stream.empty();
+        } else if (subProducts instanceof java.util.Collection) {
+            values = ((java.util.Collection<?>) subProducts).stream();
+        } else {
+            values = java.util.Arrays.stream(subProducts.toString().split("\\r?\\n"));
+        }
+        subProductList = values.filter(java.util.Objects::nonNull)
+                .map(value -> value.toString().trim())
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.toUnmodifiableList());
+        subProductsKey = GatePayload.toJsonArray(subProductList);
     }
 
     /**
@@ -108,6 +156,13 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
         return env;
     }
 
+    /**
+     * Sub-products after normalization, as sent to ArmorCode.
+     */
+    List<String> getSubProductList() {
+        return subProductList;
+    }
+
     public int getMaxRetries() {
         return maxRetries;
     }
@@ -132,180 +187,122 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
         return retryDelay;
     }
 
+    // Upper bound for the backoff between polls; 0 uses the global default
+    private int maxRetryDelay;
+
+    /**
+     * Optional parameter: longest wait between polls in seconds. Waits start at the retry delay and may grow,
+     * by a random amount that doubles after every attempt, up to this bound.
+     */
+    @DataBoundSetter
+    public void setMaxRetryDelay(int maxRetryDelay) {
+        this.maxRetryDelay = Math.max(0, maxRetryDelay);
+    }
+
+    public int getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    // Wall-clock budget for the whole check in seconds; 0 uses the global default
+    private int timeout;
+
+    /**
+     * Optional parameter: total time in seconds the gate may take, including waits between polls.
+     * When it runs out the gate is treated like an exhausted HOLD.
+     */
+    @DataBoundSetter
+    public void setTimeout(int timeout) {
+        this.timeout = Math.max(0, timeout);
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    // Reuse a cached PASS verdict for the same revision (see global verdict cache settings)
+    private boolean useCache = true;
+
+    /**
+     * Optional parameter: set to false to always ask ArmorCode, even if this revision already passed.
+     */
+    @DataBoundSetter
+    public void setUseCache(boolean useCache) {
+        this.useCache = useCache;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
+
+    // Send requests from the build's agent rather than the controller
+    private boolean runOnAgent;
+
+    /**
+     * Optional parameter: contact ArmorCode from the agent the build runs on, to keep the network and
+     * parsing work off the controller. Needs a workspace; without one the controller sends the requests.
+     */
+    @DataBoundSetter
+    public void setRunOnAgent(boolean runOnAgent) {
+        this.runOnAgent = runOnAgent;
+    }
+
+    public boolean isRunOnAgent() {
+        return runOnAgent;
+    }
+
+    /**
+     * Returns the workspace to send requests from, or null to send them from the controller.
+     */
+    FilePath agentFor(FilePath workspace, TaskListener listener) {
+        if (!runOnAgent) {
+            return null;
+        }
+        if (workspace == null) {
+            listener.getLogger()
+                    .println("[WARN] No workspace is available to contact ArmorCode from the agent;"
+                            + " using the Jenkins controller instead.");
+            return null;
+        }
+        return workspace;
+    }
+
     /**
      * Creates a detailed error message with links and context information
      * Handles both severity-based and risk-based release gates
      */
-    private String formatDetailedErrorMessage(Run<?, ?> run, JSONObject responseJson)
-            throws UnsupportedEncodingException {
+    String formatDetailedErrorMessage(String buildNumber, String jobName, GateResponse response) {
         StringBuilder message = new StringBuilder();
         message.append("Group: ").append(product).append("\n");
-        message.append("Sub Group: ").append(subProducts).append("\n");
+        message.append("Sub Group: ").append(String.join(", ", subProductList)).append("\n");
         message.append("Environment: ").append(env).append("\n");
 
-        // Extract findings scope based on the release gate type
+        // Findings scope follows the release gate type: severity based wins over risk based
         StringBuilder findingsScope = new StringBuilder();
-        boolean hasFindings = false;
-        boolean isSeverityBased = false;
-        boolean isRiskBased = false;
-
-        // Determine if severity-based by checking if any severity value is > 0
-        if (responseJson.has("severity") && responseJson.optJSONObject("severity") != null) {
-            JSONObject severity = responseJson.getJSONObject("severity");
-            if ((severity.has("Critical") && severity.getInt("Critical") > 0)
-                    || (severity.has("High") && severity.getInt("High") > 0)
-                    || (severity.has("Medium") && severity.getInt("Medium") > 0)
-                    || (severity.has("Low") && severity.getInt("Low") > 0)) {
-                isSeverityBased = true;
-            }
-        } else if ((responseJson.has("severity.Critical") && responseJson.getInt("severity.Critical") > 0)
-                || (responseJson.has("severity.High") && responseJson.getInt("severity.High") > 0)
-                || (responseJson.has("severity.Medium") && responseJson.getInt("severity.Medium") > 0)
-                || (responseJson.has("severity.Low") && responseJson.getInt("severity.Low") > 0)) {
-            isSeverityBased = true;
-        }
-
-        // Determine if risk-based by checking if any otherProperties value is > 0
-        if (responseJson.has("otherProperties") && responseJson.optJSONObject("otherProperties") != null) {
-            JSONObject riskProperties = responseJson.getJSONObject("otherProperties");
-            if ((riskProperties.has("VERY_POOR") && riskProperties.getInt("VERY_POOR") > 0)
-                    || (riskProperties.has("POOR") && riskProperties.getInt("POOR") > 0)
-                    || (riskProperties.has("FAIR") && riskProperties.getInt("FAIR") > 0)
-                    || (riskProperties.has("GOOD") && riskProperties.getInt("GOOD") > 0)) {
-                isRiskBased = true;
-            }
-        } else if ((responseJson.has("otherProperties.VERY_POOR")
-                        && responseJson.getInt("otherProperties.VERY_POOR") > 0)
-                || (responseJson.has("otherProperties.POOR") && responseJson.getInt("otherProperties.POOR") > 0)
-                || (responseJson.has("otherProperties.FAIR") && responseJson.getInt("otherProperties.FAIR") > 0)
-                || (responseJson.has("otherProperties.GOOD") && responseJson.getInt("otherProperties.GOOD") > 0)) {
-            isRiskBased = true;
-        }
-
-        // Process findings based on the determined type
-        if (isSeverityBased) {
-            // Process severity findings
-            if (responseJson.has("severity") && responseJson.optJSONObject("severity") != null) {
-                JSONObject severity = responseJson.getJSONObject("severity");
-
-                if (severity.has("Critical") && severity.getInt("Critical") > 0) {
-                    findingsScope.append(severity.getInt("Critical")).append(" Critical, ");
-                    hasFindings = true;
-                }
-                if (severity.has("High") && severity.getInt("High") > 0) {
-                    findingsScope.append(severity.getInt("High")).append(" High, ");
-                    hasFindings = true;
-                }
-                if (severity.has("Medium") && severity.getInt("Medium") > 0) {
-                    findingsScope.append(severity.getInt("Medium")).append(" Medium, ");
-                    hasFindings = true;
-                }
-                if (severity.has("Low") && severity.getInt("Low") > 0) {
-                    findingsScope.append(severity.getInt("Low")).append(" Low");
-                    hasFindings = true;
-                }
-            } else {
-                // Handle flattened severity format
-                if (responseJson.has("severity.Critical") && responseJson.getInt("severity.Critical") > 0) {
-                    findingsScope
-                            .append(responseJson.getInt("severity.Critical"))
-                            .append(" Critical, ");
-                    hasFindings = true;
-                }
-                if (responseJson.has("severity.High") && responseJson.getInt("severity.High") > 0) {
-                    findingsScope.append(responseJson.getInt("severity.High")).append(" High, ");
-                    hasFindings = true;
-                }
-                if (responseJson.has("severity.Medium") && responseJson.getInt("severity.Medium") > 0) {
-                    findingsScope.append(responseJson.getInt("severity.Medium")).append(" Medium, ");
-                    hasFindings = true;
-                }
-                if (responseJson.has("severity.Low") && responseJson.getInt("severity.Low") > 0) {
-                    findingsScope.append(responseJson.getInt("severity.Low")).append(" Low");
-                    hasFindings = true;
-                }
-            }
-        } else if (isRiskBased) {
-            // Process risk findings
-            if (responseJson.has("otherProperties") && responseJson.optJSONObject("otherProperties") != null) {
-                JSONObject riskProperties = responseJson.getJSONObject("otherProperties");
-
-                if (riskProperties.has("VERY_POOR") && riskProperties.getInt("VERY_POOR") > 0) {
-                    findingsScope.append(riskProperties.getInt("VERY_POOR")).append(" Very Poor, ");
-                    hasFindings = true;
-                }
-                if (riskProperties.has("POOR") && riskProperties.getInt("POOR") > 0) {
-                    findingsScope.append(riskProperties.getInt("POOR")).append(" Poor, ");
-                    hasFindings = true;
-                }
-                if (riskProperties.has("FAIR") && riskProperties.getInt("FAIR") > 0) {
-                    findingsScope.append(riskProperties.getInt("FAIR")).append(" Fair, ");
-                    hasFindings = true;
-                }
-                if (riskProperties.has("GOOD") && riskProperties.getInt("GOOD") > 0) {
-                    findingsScope.append(riskProperties.getInt("GOOD")).append(" Good");
-                    hasFindings = true;
-                }
-            } else {
-                // Handle flattened otherProperties format
-                if (responseJson.has("otherProperties.VERY_POOR")
-                        && responseJson.getInt("otherProperties.VERY_POOR") > 0) {
-                    findingsScope
-                            .append(responseJson.getInt("otherProperties.VERY_POOR"))
-                            .append(" Very Poor, ");
-                    hasFindings = true;
-                }
-                if (responseJson.has("otherProperties.POOR") && responseJson.getInt("otherProperties.POOR") > 0) {
-                    findingsScope
-                            .append(responseJson.getInt("otherProperties.POOR"))
-                            .append(" Poor, ");
-                    hasFindings = true;
-                }
-                if (responseJson.has("otherProperties.FAIR") && responseJson.getInt("otherProperties.FAIR") > 0) {
-                    findingsScope
-                            .append(responseJson.getInt("otherProperties.FAIR"))
-                            .append(" Fair, ");
-                    hasFindings = true;
-                }
-                if (responseJson.has("otherProperties.GOOD") && responseJson.getInt("otherProperties.GOOD") > 0) {
-                    findingsScope
-                            .append(responseJson.getInt("otherProperties.GOOD"))
-                            .append(" Good");
-                    hasFindings = true;
-                }
-            }
+        if (response.hasSeverityFindings()) {
+            appendFindings(findingsScope, response.getCritical(), "Critical");
+            appendFindings(findingsScope, response.getHigh(), "High");
+            appendFindings(findingsScope, response.getMedium(), "Medium");
+            appendFindings(findingsScope, response.getLow(), "Low");
+        } else if (response.hasRiskFindings()) {
+            appendFindings(findingsScope, response.getVeryPoor(), "Very Poor");
+            appendFindings(findingsScope, response.getPoor(), "Poor");
+            appendFindings(findingsScope, response.getFair(), "Fair");
+            appendFindings(findingsScope, response.getGood(), "Good");
         }
 
-        // Trim trailing comma and space if present
-        String scopeString = findingsScope.toString();
-        if (scopeString.endsWith(", ")) {
-            scopeString = scopeString.substring(0, scopeString.length() - 2);
-        }
-
-        if (hasFindings) {
-            message.append("Findings Scope: ").append(scopeString).append("\n");
+        if (findingsScope.length() > 0) {
+            message.append("Findings Scope: ").append(findingsScope).append("\n");
         } else {
             message.append("Findings Scope: No findings detected\n");
         }
 
         // Extract reason from response if available
-        String reason = "SLA check failed"; // Default reason
-        if (responseJson.has("failureReasonText")) {
-            // Get the value as an Object first
-            Object reasonObj = responseJson.get("failureReasonText");
-            // Only use it if it's not null and it's a non-empty string
-            if (reasonObj != null
-                    && !reasonObj.toString().equals("null")
-                    && !reasonObj.toString().isEmpty()) {
-                reason = reasonObj.toString();
-            }
-        }
+        String reason = response.getFailureReasonText() != null ? response.getFailureReasonText() : "SLA check failed";
         message.append("Reason: ").append(reason).append("\n");
 
-        String buildNumber = String.valueOf(run.getNumber());
-        String jobName = run.getParent().getFullName(); // Get the job name
-        String baseDetailsLink = responseJson.optString(
-                "detailsLink", responseJson.optString("link", "https://app.armorcode.com/client/integrations/jenkins"));
+        String baseDetailsLink = response.getDetailsLink() != null
+                ? response.getDetailsLink()
+                : "https://app.armorcode.com/client/integrations/jenkins";
         String detailsLink = baseDetailsLink + (baseDetailsLink.contains("?") ? "&" : "?") + "filters="
                 + URLEncoder.encode(
                         "{\"buildNumber\":[\"" + buildNumber + "\"],\"jobName\":[\"" + jobName + "\"]}",
@@ -315,6 +312,15 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
         return message.toString();
     }
 
+    private static void appendFindings(StringBuilder scope, int count, String label) {
+        if (count > 0) {
+            if (scope.length() > 0) {
+                scope.append(", ");
+            }
+            scope.append(count).append(' ').append(label);
+        }
+    }
+
     private boolean isNullOrEmpty(Object value) {
         if (value == null) return true;
         if (value instanceof String) {
@@ -326,10 +332,9 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
         return value.toString().isBlank();
     }
 
-    private void validateSecurityPrerequisites(Run<?, ?> run, TaskListener listener, String token)
-            throws AbortException {
+    void validateSecurityPrerequisites(String token) throws AbortException {
         // Strict parameter validation
-        if (isNullOrEmpty(product) || isNullOrEmpty(subProducts) || isNullOrEmpty(env)) {
+        if (isNullOrEmpty(product) || subProductList.isEmpty() || isNullOrEmpty(env)) {
             throw new AbortException("Incomplete security configuration");
         }
 
@@ -341,11 +346,11 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
     /**
      * Determines how to handle a FAILED status depending on the mode.
      */
-    private void saveGateInfoToProperties(Run<?, ?> run, String gateResult) {
+    void saveGateInfoToProperties(Run<?, ?> run, String gateResult) {
         List<ParameterValue> newParams = new ArrayList<>();
         newParams.add(new StringParameterValue("ArmorCode.GateUsed", "true"));
         newParams.add(new StringParameterValue("ArmorCode.Product", product));
-        newParams.add(new StringParameterValue("ArmorCode.SubProducts", subProducts.toString()));
+        newParams.add(new StringParameterValue("ArmorCode.SubProducts", String.join(", ", subProductList)));
         newParams.add(new StringParameterValue("ArmorCode.Env", env));
         newParams.add(new StringParameterValue("ArmorCode.GateResult", gateResult));
 
@@ -357,9 +362,17 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
         safeParameterNames.add("ArmorCode.GateResult");
 
         run.addAction(new ParametersAction(newParams, safeParameterNames));
+        ArmorCodeGateAction.record(run, product, String.join(", ", subProductList), env, gateResult);
+    }
+
+    /**
+     * Records on the run that this gate started, before any result is known.
+     */
+    void recordGateUsage(Run<?, ?> run) {
+        ArmorCodeGateAction.record(run, product, String.join(", ", subProductList), env, null);
     }
 
-    private void handleFailureMode(Run<?, ?> run, TaskListener listener) throws AbortException {
+    void handleFailureMode(Run<?, ?> run, TaskListener listener) throws AbortException {
         if ("block".equalsIgnoreCase(mode)) {
             listener.getLogger().println("[BLOCK] SLA check FAILED => Terminating build with failure.");
             run.setResult(Result.FAILURE);
@@ -378,23 +391,18 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
     }
 
     /**
-     * Executes the release gate check. Polls ArmorCode up to maxRetries times,
-     * parsing the status each time. Depending on the mode, the build either fails
-     * or continues if an SLA violation is found.
+     * Outcome of a single poll against the build validation endpoint.
      */
-    @Override
-    public void perform(
-            @NonNull Run<?, ?> run,
-            @NonNull FilePath workspace,
-            @NonNull Launcher launcher,
-            @NonNull TaskListener listener)
-            throws InterruptedException, AbortException {
-
-        // Gather Jenkins context info
-        final String buildNumber = String.valueOf(run.getNumber());
-        final String jobName = run.getParent().getFullName();
+    enum PollOutcome {
+        PASSED,
+        FAILED,
+        HOLD
+    }
 
-        // Get global config if available
+    /**
+     * Resolves the build validation endpoint from the job override, the global configuration or the default.
+     */
+    String resolveApiUrl() {
         String apiBaseUrl = targetUrl; // from the job config
         ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
 
@@ -415,11 +423,13 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
         if (!finalUrl.endsWith("/client/build")) {
             finalUrl += "/client/build";
         }
+        return finalUrl;
+    }
 
-        final String token = CredentialsUtils.getArmorCodeToken(run);
-        validateSecurityPrerequisites(run, listener, token);
-
-        // Construct job URL safely, handling folders and missing root URL
+    /**
+     * Constructs the job URL safely, handling folders and a missing root URL.
+     */
+    static String resolveJobUrl(Run<?, ?> run, TaskListener listener) {
         String jobUrl = "";
         try {
             jobUrl = run.getParent().getAbsoluteUrl();
@@ -432,164 +442,564 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
             // Handle any other exceptions gracefully
             LOGGER.log(Level.WARNING, "Error getting job URL", e);
         }
+        return jobUrl;
+    }
 
-        // Log initial context
-        listener.getLogger().println("=== Starting ArmorCode Release Gate Check ===");
+    /**
+     * Looks up the token and checks that the gate is fully configured before any request is sent.
+     */
+    String resolveToken(Run<?, ?> run) throws AbortException {
+        final String token = CredentialsUtils.getArmorCodeToken(run);
+        validateSecurityPrerequisites(token);
+        return token;
+    }
+
+    /**
+     * Returns the encoded request body for the given build, reusing the previous one when it was encoded for
+     * the same build. Callers keep the payload with their own check, since this builder may be shared by
+     * concurrent builds of the job.
+     */
+    GatePayload payloadFor(GatePayload previous, String buildNumber, String jobName, String jobUrl) {
+        if (previous != null && previous.isFor(buildNumber, jobName, maxRetries, jobUrl)) {
+            return previous;
+        }
+        return GatePayload.of(env, product, subProductList, buildNumber, jobName, maxRetries, jobUrl);
+    }
+
+    /**
+     * Identifies requests that may share one in-flight response. The gate tuple, endpoint and credential
+     * always take part; the build identity does too unless cross-build coalescing is enabled globally,
+     * since ArmorCode then only sees the build that sent the shared request.
+     */
+    String coalescingKey(String token, String buildNumber, String jobName, String apiUrl) {
+        StringBuilder key = new StringBuilder()
+                .append(apiUrl)
+                .append('|')
+                .append(Util.getDigestOf(token))
+                .append('|')
+                .append(env)
+                .append('|')
+                .append(product)
+                .append('|')
+                .append(subProductsKey);
+        ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
+        if (globalConfig == null || !globalConfig.isCoalesceAcrossBuilds()) {
+            key.append('|').append(jobName).append('#').append(buildNumber);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Finds the SCM revision being built from the usual SCM environment variables.
+     */
+    static String resolveRevision(EnvVars envVars) {
+        if (envVars == null) {
+            return null;
+        }
+        for (String variable : REVISION_VARIABLES) {
+            String revision = envVars.get(variable);
+            if (revision != null && !revision.isBlank()) {
+                return revision;
+            }
+        }
+        return null;
+    }
 
-        // Poll up to maxRetries times
-        boolean failureHandled = false;
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
+    /**
+     * Returns the verdict cache key for this gate at the given revision, or null if the verdict
+     * must not be cached: caching is disabled, or the revision being built is unknown.
+     */
+    String verdictCacheKey(String token, String apiUrl, String revision) {
+        ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
+        if (!useCache || revision == null || globalConfig == null || globalConfig.getVerdictCacheTtlSeconds() <= 0) {
+            return null;
+        }
+        return apiUrl + '|' + Util.getDigestOf(token) + '|' + env + '|' + product + '|' + subProductsKey + '|'
+                + revision;
+    }
+
+    /**
+     * Applies a cached PASS verdict if one exists for the key. Returns true if the gate is done.
+     */
+    boolean applyCachedVerdict(Run<?, ?> run, TaskListener listener, String verdictCacheKey)
+            throws AbortException {
+        GateResponse response = cachedVerdict(verdictCacheKey);
+        if (response == null) {
+            return false;
+        }
+        listener.getLogger().println("[INFO] Reusing cached ArmorCode verdict for this revision");
+        applyGateStatus(run, listener, response, null);
+        return true;
+    }
+
+    /**
+     * Returns the cached PASS verdict for the key, or null if there is none or the key is null.
+     */
+    static GateResponse cachedVerdict(String verdictCacheKey) {
+        if (verdictCacheKey == null) {
+            return null;
+        }
+        String cached = GateVerdictCache.get().get(verdictCacheKey);
+        if (cached == null) {
+            return null;
+        }
+        try {
+            return GateResponse.parse(cached);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Ignoring unreadable cached verdict", e);
+            return null;
+        }
+    }
+
+    /**
+     * Caches the verdict under the key if the SLA check passed; a manual RELEASE applies to one build alone.
+     */
+    static void cacheVerdict(String verdictCacheKey, GateResponse response) {
+        ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
+        if (verdictCacheKey == null || !response.isPassed() || globalConfig == null) {
+            return;
+        }
+        GateVerdictCache.get()
+                .put(
+                        verdictCacheKey,
+                        response.toJson(),
+                        TimeUnit.SECONDS.toMillis(globalConfig.getVerdictCacheTtlSeconds()),
+                        globalConfig.getVerdictCacheMaxEntries());
+    }
+
+    /**
+     * Starts the wall-clock budget for one gate check, from the job setting or the global default.
+     */
+    GateDeadline newDeadline() {
+        int seconds = timeout;
+        if (seconds <= 0) {
+            ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
+            seconds = globalConfig != null ? globalConfig.getGateTimeoutSeconds() : 0;
+        }
+        return GateDeadline.after(seconds);
+    }
+
+    /**
+     * Longest a single request may take before it is abandoned and retried.
+     */
+    static Duration requestTimeout() {
+        ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
+        return Duration.ofSeconds(
+                globalConfig != null
+                        ? globalConfig.getRequestTimeoutSeconds()
+                        : ArmorCodeGlobalConfig.DEFAULT_REQUEST_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Sends a single validation request and parses the status returned by ArmorCode.
+     * Identical concurrent requests, e.g. from parallel stages, share one round trip.
+     * The request is abandoned once the timeout passes or the calling thread is interrupted.
+     */
+    GateResponse requestGateStatus(
+            TaskListener listener, GatePayload payload, String token, int attempt, String apiUrl, Duration timeout)
+            throws Exception {
+        return requestGateStatus(listener, null, payload, token, attempt, apiUrl, timeout);
+    }
+
+    /**
+     * As above, sending the request from the given agent workspace when it is not null.
+     */
+    GateResponse requestGateStatus(
+            TaskListener listener,
+            FilePath agent,
+            GatePayload payload,
+            String token,
+            int attempt,
+            String apiUrl,
+            Duration timeout)
+            throws Exception {
+        String key = coalescingKey(token, payload.getBuildNumber(), payload.getJobName(), apiUrl);
+        GateResponse response;
+        if (agent != null) {
+            response = GateRequestCoalescer.get()
+                    .execute(
+                            key,
+                            () -> sendWithinLimits(
+                                    apiUrl,
+                                    timeout,
+                                    () -> postFromAgent(agent, token, payload, attempt, apiUrl, timeout)));
+        } else {
+            response = GateRequestCoalescer.get()
+                    .execute(
+                            key,
+                            () -> sendWithinLimits(
+                                    apiUrl,
+                                    timeout,
+                                    () -> postArmorCodeRequest(listener, token, payload, attempt, apiUrl, timeout)));
+        }
+        // A reply without a status, e.g. an empty body or "unchanged" with nothing to compare to, is retried
+        return response.requireStatus();
+    }
+
+    /**
+     * Sends the request unless the API URL's circuit breaker is open, within the controller-wide concurrency
+     * and rate limits, and reports its outcome to the breaker. Connection errors, timeouts, server-side
+     * statuses and slow responses count as failures; time spent waiting for the limits does not.
+     */
+    private static GateResponse sendWithinLimits(String apiUrl, Duration timeout, Callable<GateResponse> request)
+            throws Exception {
+        ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
+        if (globalConfig == null) {
+            return request.call();
+        }
+        boolean breakerEnabled = globalConfig.getCircuitFailureThreshold() > 0;
+        GateCircuitBreaker breaker = GateCircuitBreaker.get(apiUrl);
+        if (breakerEnabled
+                && !breaker.allowRequest(TimeUnit.SECONDS.toMillis(globalConfig.getCircuitOpenSeconds()))) {
+            throw new CircuitOpenException();
+        }
+
+        GateRequestLimiter.Permit permit;
+        try {
+            permit = GateRequestLimiter.get()
+                    .acquire(
+                            globalConfig.getGateMaxConcurrentRequests(),
+                            globalConfig.getGateRequestsPerSecond(),
+                            timeout.toMillis());
+        } catch (Exception e) {
+            if (breakerEnabled) {
+                breaker.recordAbandoned();
+            }
+            throw e;
+        }
+
+        try (permit) {
+            if (!breakerEnabled) {
+                return request.call();
+            }
+            long started = System.nanoTime();
             try {
-                // Make the HTTP POST request and parse the response
-                String responseStr = postArmorCodeRequest(
-                        listener, token, buildNumber, jobName, attempt, maxRetries, finalUrl, jobUrl);
-                JSONObject json = (JSONObject) JSONSerializer.toJSON(responseStr);
-                String status = json.optString("status", "UNKNOWN");
-                listener.getLogger().println("=== ArmorCode Release Gate ===");
-                listener.getLogger().println("Status: " + status);
-
-                if ("HOLD".equalsIgnoreCase(status)) {
-                    // On HOLD => wait 20 seconds, then retry
-                    listener.getLogger().println("[INFO] SLA is on HOLD. Sleeping " + retryDelay + "s...");
-                    listener.getLogger()
-                            .println(
-                                    "[INFO] Sleeping " + retryDelay
-                                            + " seconds before trying again. You can temporarily release the build from ArmorCode console");
-                    TimeUnit.SECONDS.sleep(retryDelay);
-                } else if ("FAILED".equalsIgnoreCase(status)) {
-                    // SLA failure => provide detailed error with links
-                    String detailedError = formatDetailedErrorMessage(run, json);
-                    listener.getLogger().println(detailedError);
-                    saveGateInfoToProperties(run, "FAIL");
-                    handleFailureMode(run, listener);
-                    failureHandled = true;
-                    // In block mode, abort immediately. In warn mode, exit gracefully.
-                    if ("block".equalsIgnoreCase(mode)) {
-                        return; // Block mode already threw exception, but return for clarity
-                    } else {
-                        return; // Warn mode - build marked UNSTABLE, exit gracefully
-                    }
+                GateResponse response = request.call();
+                if (System.nanoTime() - started
+                        > TimeUnit.SECONDS.toNanos(globalConfig.getCircuitSlowCallSeconds())) {
+                    breaker.recordFailure(globalConfig.getCircuitFailureThreshold());
                 } else {
-                    // SUCCESS or RELEASE or other statuses => pass and break out
-                    listener.getLogger().println("[INFO] ArmorCode check passed! Proceeding...");
-                    saveGateInfoToProperties(run, "PASS");
-                    return;
+                    breaker.recordSuccess();
                 }
-            } catch (AbortException e) {
-                // Rethrow AbortException to allow Jenkins to handle it
+                return response;
+            } catch (InterruptedException e) {
+                breaker.recordAbandoned();
                 throw e;
-            } catch (Exception e) {
-                listener.getLogger().println("[ERROR] ArmorCode request failed: " + e.getMessage());
-
-                // If we've tried all retries, fail the build
-                if (attempt == maxRetries) {
-                    throw new AbortException("ArmorCode request error after maximum retries.");
+            } catch (GateHttpException e) {
+                if (e.isServerSide()) {
+                    breaker.recordFailure(globalConfig.getCircuitFailureThreshold());
+                } else {
+                    // ArmorCode is up and rejected this particular request
+                    breaker.recordSuccess();
                 }
+                throw e;
+            } catch (Exception e) {
+                breaker.recordFailure(globalConfig.getCircuitFailureThreshold());
+                throw e;
+            }
+        }
+    }
 
-                // Otherwise wait and retry
-                listener.getLogger().println("Waiting " + retryDelay + "s before retry...");
-                TimeUnit.SECONDS.sleep(retryDelay);
+    /**
+     * Applies the configured fallback verdict while the circuit breaker keeps ArmorCode from being contacted.
+     * A {@code fail} fallback is treated like a failed check, so a gate in warn mode only marks the build UNSTABLE.
+     */
+    PollOutcome applyCircuitFallback(Run<?, ?> run, TaskListener listener) throws AbortException {
+        String fallback = circuitFallback();
+        listener.getLogger().println("=== ArmorCode Release Gate ===");
+        listener.getLogger()
+                .println("[WARN] ArmorCode is unavailable (circuit breaker open) => Applying fallback verdict: "
+                        + fallback.toUpperCase(java.util.Locale.ROOT));
+        if ("pass".equalsIgnoreCase(fallback)) {
+            saveGateInfoToProperties(run, "PASS");
+            return PollOutcome.PASSED;
+        } else if ("warn".equalsIgnoreCase(fallback)) {
+            saveGateInfoToProperties(run, "FAIL");
+            run.setResult(Result.UNSTABLE);
+            return PollOutcome.FAILED;
+        } else {
+            saveGateInfoToProperties(run, "FAIL");
+            if ("warn".equalsIgnoreCase(mode)) {
+                handleFailureMode(run, listener);
+                return PollOutcome.FAILED;
             }
+            run.setResult(Result.FAILURE);
+            throw new AbortException("ArmorCode release gate failed: ArmorCode is unavailable");
         }
+    }
 
-        // If the loop completes without returning, it means max retries were hit on HOLD
-        // Only handle failure if we haven't already handled it above
-        if (!failureHandled) {
-            listener.getLogger()
-                    .println("[ERROR] ArmorCode check did not pass after " + maxRetries
-                            + " retries (last status was HOLD).");
+    /**
+     * Whether the circuit breaker fallback lets the build run, given this gate's mode.
+     */
+    boolean isCircuitFallbackLenient() {
+        return !"fail".equalsIgnoreCase(circuitFallback()) || "warn".equalsIgnoreCase(mode);
+    }
+
+    private static String circuitFallback() {
+        ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
+        return globalConfig != null ? globalConfig.getCircuitFallback() : "fail";
+    }
+
+    /**
+     * Applies a gate response to the run. HOLD means the caller should wait and poll again;
+     * PASSED and FAILED are final. In block mode a FAILED status is thrown as an AbortException.
+     */
+    PollOutcome applyGateStatus(Run<?, ?> run, TaskListener listener, GateResponse response, String verdictCacheKey)
+            throws AbortException {
+        listener.getLogger().println("=== ArmorCode Release Gate ===");
+        listener.getLogger().println("Status: " + response.getStatus());
+
+        if (response.isHold()) {
+            return PollOutcome.HOLD;
+        } else if (response.isFailed()) {
+            // SLA failure => provide detailed error with links
+            String detailedError = formatDetailedErrorMessage(
+                    String.valueOf(run.getNumber()), run.getParent().getFullName(), response);
+            listener.getLogger().println(detailedError);
             saveGateInfoToProperties(run, "FAIL");
+            // Block mode throws here; warn mode marks the build UNSTABLE and returns
             handleFailureMode(run, listener);
+            return PollOutcome.FAILED;
+        } else {
+            // SUCCESS or RELEASE or other statuses => pass
+            listener.getLogger().println("[INFO] ArmorCode check passed! Proceeding...");
+            saveGateInfoToProperties(run, "PASS");
+            cacheVerdict(verdictCacheKey, response);
+            return PollOutcome.PASSED;
+        }
+    }
+
+    /**
+     * Backoff for this gate: the retry delay as the shortest wait, bounded by the job or global maximum.
+     */
+    BackoffPolicy backoffPolicy() {
+        int max = maxRetryDelay;
+        if (max <= 0) {
+            ArmorCodeGlobalConfig globalConfig = ArmorCodeGlobalConfig.get();
+            max = globalConfig != null
+                    ? globalConfig.getMaxRetryDelaySeconds()
+                    : ArmorCodeGlobalConfig.DEFAULT_MAX_RETRY_DELAY_SECONDS;
+        }
+        return new BackoffPolicy(retryDelay, max);
+    }
+
+    /**
+     * How long to wait after a HOLD, preferring the interval ArmorCode asked for.
+     */
+    long holdDelaySeconds(int attempt, GateResponse response) {
+        return backoffPolicy().delaySeconds(attempt, response.getNextPollSeconds());
+    }
+
+    /**
+     * How long to wait after a failed request, preferring the server's Retry-After.
+     */
+    long errorDelaySeconds(int attempt, Exception e) {
+        long hint = e instanceof RetryAfterException retryAfter ? retryAfter.getRetryAfterSeconds() : 0;
+        return backoffPolicy().delaySeconds(attempt, hint);
+    }
+
+    static void logHold(TaskListener listener, long delaySeconds) {
+        listener.getLogger().println("[INFO] SLA is on HOLD. Sleeping " + delaySeconds + "s...");
+        listener.getLogger()
+                .println(
+                        "[INFO] Sleeping " + delaySeconds
+                                + " seconds before trying again. You can temporarily release the build from ArmorCode console");
+    }
+
+    /**
+     * Waits up to delaySeconds for ArmorCode to push a verdict through the callback endpoint.
+     * Returns the outcome of the pushed verdict, or {@link PollOutcome#HOLD} if none arrived or it was
+     * another HOLD, in which case the caller should poll again.
+     */
+    PollOutcome awaitCallback(
+            Run<?, ?> run,
+            TaskListener listener,
+            BlockingQueue<String> callbacks,
+            long delaySeconds,
+            String verdictCacheKey)
+            throws InterruptedException, IOException {
+        String pushed = callbacks.poll(delaySeconds, TimeUnit.SECONDS);
+        if (pushed == null) {
+            return PollOutcome.HOLD;
+        }
+        listener.getLogger().println("[INFO] Verdict received from ArmorCode callback");
+        return applyGateStatus(run, listener, GateResponse.parse(pushed), verdictCacheKey);
+    }
+
+    /**
+     * Called when every attempt came back HOLD.
+     */
+    void handleHoldExhausted(Run<?, ?> run, TaskListener listener) throws AbortException {
+        listener.getLogger()
+                .println("[ERROR] ArmorCode check did not pass after " + maxRetries
+                        + " retries (last status was HOLD).");
+        saveGateInfoToProperties(run, "FAIL");
+        handleFailureMode(run, listener);
+    }
+
+    /**
+     * Called when the gate's time budget ran out before a verdict arrived.
+     */
+    void handleDeadlineExceeded(Run<?, ?> run, TaskListener listener, String lastStatus) throws AbortException {
+        listener.getLogger()
+                .println("[ERROR] ArmorCode check timed out before a verdict was returned (last status was "
+                        + lastStatus + ").");
+        saveGateInfoToProperties(run, "FAIL");
+        handleFailureMode(run, listener);
+    }
+
+    /**
+     * Executes the release gate check. Polls ArmorCode up to maxRetries times,
+     * parsing the status each time. Depending on the mode, the build either fails
+     * or continues if an SLA violation is found.
+     */
+    @Override
+    public void perform(
+            @NonNull Run<?, ?> run,
+            @NonNull FilePath workspace,
+            @NonNull Launcher launcher,
+            @NonNull TaskListener listener)
+            throws InterruptedException, AbortException {
+        check(run, workspace, listener);
+    }
+
+    /**
+     * Runs the gate to completion on the calling thread and returns whether it passed. A failure in
+     * warn mode returns {@link PollOutcome#FAILED}; block mode, and errors in either mode, throw.
+     * The workspace, which may be null, is where requests are sent from if {@code runOnAgent} is set.
+     */
+    PollOutcome check(@NonNull Run<?, ?> run, FilePath workspace, @NonNull TaskListener listener)
+            throws InterruptedException, AbortException {
+
+        // Gather Jenkins context info
+        final String buildNumber = String.valueOf(run.getNumber());
+        final String jobName = run.getParent().getFullName();
+
+        final String finalUrl = resolveApiUrl();
+        final String token = resolveToken(run);
+        final String jobUrl = resolveJobUrl(run, listener);
+
+        // Log initial context
+        listener.getLogger().println("=== Starting ArmorCode Release Gate Check ===");
+        recordGateUsage(run);
+        final FilePath agent = agentFor(workspace, listener);
+
+        // A revision that already passed this gate recently does not need another round trip
+        String revision = null;
+        try {
+            revision = resolveRevision(run.getEnvironment(listener));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not read build environment", e);
+        }
+        final String cacheKey = verdictCacheKey(token, finalUrl, revision);
+        if (applyCachedVerdict(run, listener, cacheKey)) {
+            return PollOutcome.PASSED;
+        }
+
+        // Poll up to maxRetries times within the time budget; a verdict pushed to the callback endpoint
+        // ends the wait early
+        final GateDeadline deadline = newDeadline();
+        String lastStatus = "PENDING";
+        final GatePayload payload = payloadFor(null, buildNumber, jobName, jobUrl);
+        BlockingQueue<String> callbacks = new LinkedBlockingQueue<>();
+        try (GateCallbackRegistry.Registration ignored =
+                GateCallbackRegistry.get()
+                        .register(jobName, buildNumber, product, subProductList, env, callbacks::offer)) {
+            for (int attempt = 1; attempt <= maxRetries; attempt++) {
+                if (deadline.isExpired()) {
+                    handleDeadlineExceeded(run, listener, lastStatus);
+                    return PollOutcome.FAILED;
+                }
+                try {
+                    // Make the HTTP POST request and parse the response
+                    GateResponse response = requestGateStatus(
+                            listener,
+                            agent,
+                            payload,
+                            token,
+                            attempt,
+                            finalUrl,
+                            deadline.attemptTimeout(requestTimeout()));
+                    PollOutcome outcome = applyGateStatus(run, listener, response, cacheKey);
+                    if (outcome != PollOutcome.HOLD) {
+                        // Passed, or failed in warn mode (block mode already threw)
+                        return outcome;
+                    }
+                    lastStatus = "HOLD";
+                    if (attempt < maxRetries) {
+                        long delay = deadline.clampDelaySeconds(holdDelaySeconds(attempt, response));
+                        logHold(listener, delay);
+                        PollOutcome pushed = awaitCallback(run, listener, callbacks, delay, cacheKey);
+                        if (pushed != PollOutcome.HOLD) {
+                            return pushed;
+                        }
+                    }
+                } catch (AbortException e) {
+                    // Rethrow AbortException to allow Jenkins to handle it
+                    throw e;
+                } catch (CircuitOpenException e) {
+                    // Retrying would only add load to a struggling ArmorCode
+                    return applyCircuitFallback(run, listener);
+                } catch (InterruptedException e) {
+                    // The build was aborted; the in-flight request has already been cancelled
+                    throw e;
+                } catch (Exception e) {
+                    listener.getLogger().println("[ERROR] ArmorCode request failed: " + e.getMessage());
+                    lastStatus = "ERROR";
+
+                    // If we've tried all retries, fail the build
+                    if (attempt == maxRetries) {
+                        throw new AbortException("ArmorCode request error after maximum retries.");
+                    }
+
+                    // Otherwise wait and retry
+                    long delay = deadline.clampDelaySeconds(errorDelaySeconds(attempt, e));
+                    listener.getLogger().println("Waiting " + delay + "s before retry...");
+                    TimeUnit.SECONDS.sleep(delay);
+                }
+            }
+
+            // If the loop completes without returning, it means max retries were hit on HOLD
+            handleHoldExhausted(run, listener);
+            return PollOutcome.FAILED;
         }
     }
 
     /**
      * Sends a POST request to ArmorCode's build validation endpoint
-     * with the given parameters, then returns the raw JSON response.
+     * with the given parameters, then returns the parsed response.
+     * Interrupting the calling thread cancels the request.
      */
-    protected String postArmorCodeRequest(
+    protected GateResponse postArmorCodeRequest(
             @NonNull TaskListener listener,
             String token,
-            String buildNumber,
-            String jobName,
+            GatePayload payload,
             int current,
-            int end,
             String apiUrl,
-            String jobUrl)
+            Duration timeout)
             throws Exception {
 
-        // Format current and end as strings to match the curl command exactly
-        String subProductsJsonArray;
-        if (subProducts == null) {
-            subProductsJsonArray = "[]";
-        } else if (subProducts instanceof java.util.List) {
-            subProductsJsonArray = net.sf.json.JSONArray.fromObject(subProducts).toString();
-        } else {
-            java.util.List<String> subProductList = java.util.Arrays.stream(((String) subProducts).split("\\r?\\n"))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(java.util.stream.Collectors.toList());
-            subProductsJsonArray =
-                    net.sf.json.JSONArray.fromObject(subProductList).toString();
-        }
-
-        final String payload = String.format(
-                "{ \"env\": \"%s\", \"product\": \"%s\", \"subProducts\": %s, "
-                        + "\"buildNumber\": \"%s\", \"jobName\": \"%s\", \"current\": \"%s\", \"end\": \"%s\" , \"jobURL\": \"%s\"}",
-                env,
-                product,
-                subProductsJsonArray,
-                buildNumber,
-                jobName,
-                String.valueOf(current),
-                String.valueOf(end),
-                jobUrl);
-
-        // Configure HTTP connection
-        URL url = new URL(apiUrl);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        conn.setDoOutput(true);
-
-        // Set character encoding explicitly
-        conn.setRequestProperty("Accept-Charset", "UTF-8");
-
-        // Write payload with explicit UTF-8 encoding
-        conn.getOutputStream().write(payload.getBytes(StandardCharsets.UTF_8));
-        conn.getOutputStream().flush();
-
-        // Check response code before reading
-        int responseCode = conn.getResponseCode();
-
-        if (responseCode >= 200 && responseCode < 300) {
-            // Success case
-            try (BufferedReader in =
-                    new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                StringBuilder sb = new StringBuilder();
-                String line;
-                while ((line = in.readLine()) != null) {
-                    sb.append(line);
-                }
-                return sb.toString();
-            }
-        } else {
-            // Error case - extract and log the error response
-            StringBuilder errorResponse = new StringBuilder();
-            try (BufferedReader errorReader =
-                    new BufferedReader(new InputStreamReader(conn.getErrorStream(), StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = errorReader.readLine()) != null) {
-                    errorResponse.append(line);
-                }
-            } catch (Exception ex) {
-                errorResponse.append("Failed to read error stream: ").append(ex.getMessage());
-            }
+        GateExchange exchange = new GateExchange(
+                apiUrl, token, payload.forAttempt(current), timeout, payload.getLastResponse());
 
-            throw new IOException("Server returned HTTP response code: " + responseCode + " for URL: " + apiUrl
-                    + " with message: " + errorResponse);
-        }
+        // Send over the shared client so repeated polls reuse pooled connections and TLS sessions
+        GateResponse response =
+                exchange.read(ArmorCodeHttpClient.get().send(exchange.toRequest(), GateExchange.bodyHandler()));
+        payload.setLastResponse(response);
+        return response;
+    }
+
+    /**
+     * Sends the request from the build's agent instead of the controller. The controller still applies
+     * the shared limits and handles the verdict; only the parsed response comes back.
+     */
+    GateResponse postFromAgent(
+            FilePath agent, String token, GatePayload payload, int current, String apiUrl, Duration timeout)
+            throws Exception {
+        GateResponse response = agent.act(new GateExchange(
+                apiUrl, token, payload.forAttempt(current), timeout, payload.getLastResponse()));
+        payload.setLastResponse(response);
+        return response;
     }
 
     @Override
@@ -597,11 +1007,21 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
         return BuildStepMonitor.NONE;
     }
 
+    /**
+     * Options of the mode dropdown, shared by every gate step and property.
+     */
+    static hudson.util.ListBoxModel modeItems() {
+        hudson.util.ListBoxModel items = new hudson.util.ListBoxModel();
+        items.add("Block build on failure", "block");
+        items.add("Warn but continue build", "warn");
+        return items;
+    }
+
     /**
      * Descriptor that tells Jenkins how to display and instantiate this step.
+     * It has no symbol: in a Pipeline, {@code armorcodeReleaseGate} is {@link ArmorCodeReleaseGateStep}.
      */
     @Extension
-    @Symbol("armorcodeReleaseGate")
     public static class DescriptorImpl extends BuildStepDescriptor<Builder> {
 
         @Override
@@ -624,10 +1044,7 @@ public class ArmorCodeReleaseGateBuilder extends Builder implements SimpleBuildS
          * Populates the mode dropdown with available options.
          */
         public hudson.util.ListBoxModel doFillModeItems() {
-            hudson.util.ListBoxModel items = new hudson.util.ListBoxModel();
-            items.add("Block build on failure", "block");
-            items.add("Warn but continue build", "warn");
-            return items;
+            return modeItems();
         }
     }
 }
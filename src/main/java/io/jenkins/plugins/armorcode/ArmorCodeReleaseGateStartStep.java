@@ -0,0 +1,82 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.Set;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousStepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Pipeline implementation of {@code armorcodeReleaseGateStart}.
+ * Starts the same check as {@code armorcodeReleaseGate} in the background and returns at once with a
+ * handle, so the gate can overlap building and testing; {@code armorcodeReleaseGateAwait} applies the
+ * verdict where it is needed.
+ */
+public class ArmorCodeReleaseGateStartStep extends ArmorCodeReleaseGateStep {
+
+    @DataBoundConstructor
+    public ArmorCodeReleaseGateStartStep(String product, Object subProducts, String env) {
+        super(product, subProducts, env);
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(context, toBuilder());
+    }
+
+    private static class Execution extends SynchronousStepExecution<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ArmorCodeReleaseGateBuilder gate;
+
+        Execution(StepContext context, ArmorCodeReleaseGateBuilder gate) {
+            super(context);
+            this.gate = gate;
+        }
+
+        @Override
+        protected String run() throws Exception {
+            Run<?, ?> run = getContext().get(Run.class);
+            TaskListener listener = getContext().get(TaskListener.class);
+            // Configuration problems fail here rather than at the await
+            String handle = ArmorCodePendingGates.start(
+                    gate, run, getContext().get(FilePath.class), getContext().get(EnvVars.class), listener);
+            listener.getLogger().println("[INFO] ArmorCode release gate started in the background: " + handle);
+            return handle;
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(Run.class, TaskListener.class);
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "armorcodeReleaseGateStart";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Start ArmorCode Release Gate in the background";
+        }
+
+        /**
+         * Populates the mode dropdown with available options.
+         */
+        public hudson.util.ListBoxModel doFillModeItems() {
+            return ArmorCodeReleaseGateBuilder.modeItems();
+        }
+    }
+}
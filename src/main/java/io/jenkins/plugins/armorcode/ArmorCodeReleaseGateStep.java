@@ -0,0 +1,179 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.Set;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Pipeline implementation of {@code armorcodeReleaseGate}.
+ * Takes the same parameters as {@link ArmorCodeReleaseGateBuilder}, but does not need a node and
+ * holds no thread while the gate is on HOLD: each poll is scheduled on a timer and the build only
+ * resumes once ArmorCode returns a verdict. The symbol used to belong to the freestyle build step, which
+ * no longer has one, so existing Pipeline calls now run here.
+ */
+public class ArmorCodeReleaseGateStep extends Step {
+
+    // Required parameters
+    private final String product;
+    private final Object subProducts;
+    private final String env;
+
+    // Optional parameters with default values
+    private int maxRetries = 5;
+    private String mode = "block";
+    private String targetUrl;
+    private int retryDelay = 20; // seconds
+    private int maxRetryDelay; // seconds, 0 uses the global default
+    private int timeout; // seconds, 0 uses the global default
+    private boolean useCache = true;
+    private boolean runOnAgent;
+
+    @DataBoundConstructor
+    public ArmorCodeReleaseGateStep(String product, Object subProducts, String env) {
+        this.product = product;
+        this.subProducts = subProducts;
+        this.env = env;
+    }
+
+    @DataBoundSetter
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries > 0 ? maxRetries : 5;
+    }
+
+    @DataBoundSetter
+    public void setMode(String mode) {
+        this.mode = mode != null ? mode : "block";
+    }
+
+    @DataBoundSetter
+    public void setTargetUrl(String targetUrl) {
+        this.targetUrl = targetUrl;
+    }
+
+    @DataBoundSetter
+    public void setRetryDelay(int retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    @DataBoundSetter
+    public void setMaxRetryDelay(int maxRetryDelay) {
+        this.maxRetryDelay = Math.max(0, maxRetryDelay);
+    }
+
+    @DataBoundSetter
+    public void setTimeout(int timeout) {
+        this.timeout = Math.max(0, timeout);
+    }
+
+    @DataBoundSetter
+    public void setUseCache(boolean useCache) {
+        this.useCache = useCache;
+    }
+
+    @DataBoundSetter
+    public void setRunOnAgent(boolean runOnAgent) {
+        this.runOnAgent = runOnAgent;
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    public Object getSubProducts() {
+        return subProducts;
+    }
+
+    public String getEnv() {
+        return env;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public String getTargetUrl() {
+        // Return null if empty so it doesn't appear in snippet generator
+        return (targetUrl == null || targetUrl.isBlank()) ? null : targetUrl;
+    }
+
+    public int getRetryDelay() {
+        return retryDelay;
+    }
+
+    public int getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
+
+    public boolean isRunOnAgent() {
+        return runOnAgent;
+    }
+
+    /**
+     * Creates a builder with the same configuration. The builder owns request and verdict handling,
+     * so freestyle and Pipeline gates behave identically.
+     */
+    ArmorCodeReleaseGateBuilder toBuilder() {
+        ArmorCodeReleaseGateBuilder builder = new ArmorCodeReleaseGateBuilder(product, subProducts, env);
+        builder.setMaxRetries(maxRetries);
+        builder.setMode(mode);
+        builder.setTargetUrl(targetUrl);
+        builder.setRetryDelay(retryDelay);
+        builder.setMaxRetryDelay(maxRetryDelay);
+        builder.setTimeout(timeout);
+        builder.setUseCache(useCache);
+        builder.setRunOnAgent(runOnAgent);
+        return builder;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new ArmorCodeReleaseGateStepExecution(context, toBuilder());
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(Run.class, TaskListener.class);
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "armorcodeReleaseGate";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "ArmorCode Release Gate";
+        }
+
+        /**
+         * Populates the mode dropdown with available options.
+         */
+        public hudson.util.ListBoxModel doFillModeItems() {
+            return ArmorCodeReleaseGateBuilder.modeItems();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+
+/**
+ * Asynchronous execution of {@link ArmorCodeReleaseGateStep}.
+ * The gate is checked by an {@link ArmorCodeGatePoller}, so the build holds neither an executor nor a CPS
+ * thread between polls. The step completes only once a verdict arrives, either from a poll or pushed
+ * through {@link ArmorCodeCallbackAction}. The poller is saved with the build, so after a controller
+ * restart polling resumes where it left off.
+ */
+public class ArmorCodeReleaseGateStepExecution extends AbstractStepExecutionImpl {
+    private static final long serialVersionUID = 1L;
+
+    private final ArmorCodeGatePoller poller;
+
+    ArmorCodeReleaseGateStepExecution(StepContext context, ArmorCodeReleaseGateBuilder gate) {
+        super(context);
+        this.poller = new ArmorCodeGatePoller(gate);
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        return poller.start(
+                getContext().get(Run.class),
+                getContext().get(TaskListener.class),
+                getContext().get(FilePath.class),
+                getContext().get(EnvVars.class),
+                new Handler());
+    }
+
+    @Override
+    public void stop(@NonNull Throwable cause) throws Exception {
+        if (poller.cancel()) {
+            getContext().onFailure(cause);
+        }
+    }
+
+    @Override
+    public void onResume() {
+        Run<?, ?> run;
+        TaskListener listener;
+        FilePath workspace;
+        try {
+            run = getContext().get(Run.class);
+            listener = getContext().get(TaskListener.class);
+            // Only a gate that sends from the agent needs it, and it is absent while the agent reconnects
+            workspace = poller.getGate().isRunOnAgent() ? getContext().get(FilePath.class) : null;
+        } catch (Exception e) {
+            getContext().onFailure(e);
+            return;
+        }
+        poller.resume(run, listener, workspace, new Handler());
+    }
+
+    @Override
+    public String getStatus() {
+        return "Waiting for ArmorCode release gate verdict (attempt " + poller.getAttempt() + " of "
+                + poller.getGate().getMaxRetries() + ")";
+    }
+
+    /**
+     * Completes the step with the gate's outcome; a failure in warn mode still lets the build continue.
+     */
+    private class Handler implements ArmorCodeGatePoller.Handler {
+        @Override
+        public void onVerdict(ArmorCodeReleaseGateBuilder.PollOutcome outcome) {
+            getContext().onSuccess(null);
+        }
+
+        @Override
+        public void onError(Throwable cause) {
+            getContext().onFailure(cause);
+        }
+
+        @Override
+        public void saveState() {
+            getContext().saveState();
+        }
+    }
+}
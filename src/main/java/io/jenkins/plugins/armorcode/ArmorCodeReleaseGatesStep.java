@@ -0,0 +1,183 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Pipeline implementation of {@code armorcodeReleaseGates}.
+ * Checks several product, sub-product and environment tuples at once, so a deployment of many services
+ * waits for the slowest gate rather than for the sum of all of them. Options apply to every gate and
+ * behave as in {@link ArmorCodeReleaseGateStep}.
+ */
+public class ArmorCodeReleaseGatesStep extends Step {
+
+    static final int DEFAULT_PARALLELISM = 8;
+    static final int MAX_PARALLELISM = 32;
+
+    private final List<ArmorCodeGateSpec> gates;
+
+    // Optional parameters with default values
+    private int maxRetries = 5;
+    private String mode = "block";
+    private String targetUrl;
+    private int retryDelay = 20; // seconds
+    private int maxRetryDelay; // seconds, 0 uses the global default
+    private int timeout; // seconds, 0 uses the global default
+    private boolean useCache = true;
+    private boolean runOnAgent;
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    @DataBoundConstructor
+    public ArmorCodeReleaseGatesStep(List<ArmorCodeGateSpec> gates) {
+        this.gates = gates != null ? new ArrayList<>(gates) : new ArrayList<>();
+    }
+
+    @DataBoundSetter
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries > 0 ? maxRetries : 5;
+    }
+
+    @DataBoundSetter
+    public void setMode(String mode) {
+        this.mode = mode != null ? mode : "block";
+    }
+
+    @DataBoundSetter
+    public void setTargetUrl(String targetUrl) {
+        this.targetUrl = targetUrl;
+    }
+
+    @DataBoundSetter
+    public void setRetryDelay(int retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    @DataBoundSetter
+    public void setMaxRetryDelay(int maxRetryDelay) {
+        this.maxRetryDelay = Math.max(0, maxRetryDelay);
+    }
+
+    @DataBoundSetter
+    public void setTimeout(int timeout) {
+        this.timeout = Math.max(0, timeout);
+    }
+
+    @DataBoundSetter
+    public void setUseCache(boolean useCache) {
+        this.useCache = useCache;
+    }
+
+    @DataBoundSetter
+    public void setRunOnAgent(boolean runOnAgent) {
+        this.runOnAgent = runOnAgent;
+    }
+
+    /**
+     * How many gates are checked at the same time, between 1 and {@value #MAX_PARALLELISM}.
+     */
+    @DataBoundSetter
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism > 0 ? Math.min(parallelism, MAX_PARALLELISM) : DEFAULT_PARALLELISM;
+    }
+
+    public List<ArmorCodeGateSpec> getGates() {
+        return gates;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public String getTargetUrl() {
+        // Return null if empty so it doesn't appear in snippet generator
+        return (targetUrl == null || targetUrl.isBlank()) ? null : targetUrl;
+    }
+
+    public int getRetryDelay() {
+        return retryDelay;
+    }
+
+    public int getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
+
+    public boolean isRunOnAgent() {
+        return runOnAgent;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Creates a builder for one of the gates, carrying the options shared by all of them.
+     */
+    ArmorCodeReleaseGateBuilder toBuilder(ArmorCodeGateSpec spec) {
+        ArmorCodeReleaseGateBuilder builder =
+                new ArmorCodeReleaseGateBuilder(spec.getProduct(), spec.getSubProducts(), spec.getEnv());
+        builder.setMaxRetries(maxRetries);
+        builder.setMode(mode);
+        builder.setTargetUrl(targetUrl);
+        builder.setRetryDelay(retryDelay);
+        builder.setMaxRetryDelay(maxRetryDelay);
+        builder.setTimeout(timeout);
+        builder.setUseCache(useCache);
+        builder.setRunOnAgent(runOnAgent);
+        return builder;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new ArmorCodeReleaseGatesStepExecution(context, this);
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(Run.class, TaskListener.class);
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "armorcodeReleaseGates";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "ArmorCode Release Gates (several at once)";
+        }
+
+        /**
+         * Populates the mode dropdown with available options.
+         */
+        public hudson.util.ListBoxModel doFillModeItems() {
+            return ArmorCodeReleaseGateBuilder.modeItems();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package io.jenkins.plugins.armorcode;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.console.LineTransformationOutputStream;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.StreamTaskListener;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+
+/**
+ * Execution of {@link ArmorCodeReleaseGatesStep}.
+ * Every gate is checked by its own {@link ArmorCodeGatePoller}, as in {@code armorcodeReleaseGate}, with
+ * its log lines labelled by the tuple it checks. No thread is held while gates are on HOLD; at most the
+ * step's parallelism of gates are in progress at a time, and the next one starts as one finishes. Once all
+ * gates are done the step returns a map with the overall {@code result} and one entry per gate under
+ * {@code gates}, in the order given. The step fails if any gate failed in block mode or could not be
+ * checked, as a sequence of {@code armorcodeReleaseGate} calls would have. The pollers and the results so
+ * far are saved with the build, so after a controller restart the gates in progress resume.
+ */
+public class ArmorCodeReleaseGatesStepExecution extends AbstractStepExecutionImpl {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(ArmorCodeReleaseGatesStepExecution.class.getName());
+
+    private final List<ArmorCodeGatePoller> pollers = new ArrayList<>();
+    private final GateResult[] results;
+    private final int parallelism;
+
+    // Progress, guarded by this
+    private int started;
+    private int finished;
+    private boolean done;
+
+    // Resolved in start() or onResume()
+    private transient Run<?, ?> run;
+    private transient TaskListener listener;
+    private transient FilePath workspace;
+    private transient EnvVars envVars;
+    private transient LabelledStream[] streams;
+
+    /**
+     * Outcome of one gate.
+     */
+    private static final class GateResult implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String product;
+        private final List<String> subProducts;
+        private final String env;
+        private final String result;
+        private final String message;
+        private final boolean aborted;
+
+        GateResult(ArmorCodeReleaseGateBuilder gate, String result, String message, boolean aborted) {
+            this.product = gate.getProduct();
+            this.subProducts = new ArrayList<>(gate.getSubProductList());
+            this.env = gate.getEnv();
+            this.result = result;
+            this.message = message;
+            this.aborted = aborted;
+        }
+
+        String label() {
+            return product + "/" + String.join(",", subProducts) + "/" + env;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("product", product);
+            map.put("subProducts", new ArrayList<>(subProducts));
+            map.put("env", env);
+            map.put("result", result);
+            map.put("message", message);
+            return map;
+        }
+    }
+
+    ArmorCodeReleaseGatesStepExecution(StepContext context, ArmorCodeReleaseGatesStep step) {
+        super(context);
+        for (ArmorCodeGateSpec spec : step.getGates()) {
+            pollers.add(new ArmorCodeGatePoller(step.toBuilder(spec)));
+        }
+        this.results = new GateResult[pollers.size()];
+        this.parallelism = Math.max(1, Math.min(step.getParallelism(), pollers.size()));
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        if (pollers.isEmpty()) {
+            throw new AbortException("No ArmorCode release gates were given");
+        }
+        resolveContext();
+        listener.getLogger()
+                .println("=== Checking " + pollers.size() + " ArmorCode release gates, up to " + parallelism
+                        + " at a time ===");
+        startMore();
+        return false;
+    }
+
+    private void resolveContext() throws Exception {
+        run = getContext().get(Run.class);
+        listener = getContext().get(TaskListener.class);
+        workspace = getContext().get(FilePath.class);
+        envVars = getContext().get(EnvVars.class);
+        synchronized (this) {
+            streams = new LabelledStream[pollers.size()];
+        }
+    }
+
+    private static String label(ArmorCodeReleaseGateBuilder gate) {
+        return gate.getProduct() + "/" + String.join(",", gate.getSubProductList()) + "/" + gate.getEnv();
+    }
+
+    /**
+     * Starts gates until the parallelism is used up or every gate has started.
+     */
+    private void startMore() {
+        while (true) {
+            int index;
+            synchronized (this) {
+                if (done || started == pollers.size() || started - finished >= parallelism) {
+                    return;
+                }
+                index = started++;
+            }
+            ArmorCodeGatePoller poller = pollers.get(index);
+            try {
+                poller.start(run, listenerFor(index), workspace, envVars, new GateHandler(index));
+            } catch (Exception e) {
+                onGateDone(index, failure(poller.getGate(), e));
+            }
+        }
+    }
+
+    private synchronized TaskListener listenerFor(int index) {
+        if (streams[index] == null) {
+            streams[index] = new LabelledStream(
+                    listener.getLogger(), "[" + label(pollers.get(index).getGate()) + "] ");
+        }
+        return new StreamTaskListener(streams[index], StandardCharsets.UTF_8);
+    }
+
+    private static GateResult failure(ArmorCodeReleaseGateBuilder gate, Throwable cause) {
+        if (cause instanceof AbortException) {
+            return new GateResult(gate, "FAIL", cause.getMessage(), true);
+        }
+        if (cause instanceof InterruptedException) {
+            return new GateResult(gate, "ABORTED", null, true);
+        }
+        LOGGER.log(Level.WARNING, "[ArmorCode] Release gate " + label(gate) + " failed unexpectedly", cause);
+        return new GateResult(gate, "FAIL", cause.getMessage(), true);
+    }
+
+    // Called from the pollers' threads, so the shared state is only touched under the lock
+    private void onGateDone(int index, GateResult result) {
+        LabelledStream stream;
+        boolean last;
+        synchronized (this) {
+            if (done || results[index] != null) {
+                return;
+            }
+            stream = streams[index];
+            results[index] = result;
+            finished++;
+            last = finished == results.length;
+        }
+        if (stream != null) {
+            try {
+                stream.forceEol();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not flush gate log", e);
+            }
+        }
+        if (last) {
+            finish();
+        } else {
+            getContext().saveState();
+            startMore();
+        }
+    }
+
+    private void finish() {
+        GateResult[] outcomes;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            outcomes = results.clone();
+        }
+        List<Map<String, Object>> gates = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        boolean aborted = false;
+        for (GateResult result : outcomes) {
+            gates.add(result.toMap());
+            if (!"PASS".equals(result.result)) {
+                failed.add(result.label());
+            }
+            aborted |= result.aborted;
+        }
+
+        listener.getLogger()
+                .println("=== ArmorCode release gates: " + (outcomes.length - failed.size()) + " passed, "
+                        + failed.size() + " failed ===");
+        for (GateResult result : outcomes) {
+            listener.getLogger()
+                    .println("  " + result.label() + ": " + result.result
+                            + (result.message != null ? " (" + result.message + ")" : ""));
+        }
+
+        if (aborted) {
+            getContext()
+                    .onFailure(new AbortException("ArmorCode release gate failed for " + failed.size() + " of "
+                            + outcomes.length + " gates: " + String.join(", ", failed)));
+            return;
+        }
+        Map<String, Object> verdict = new LinkedHashMap<>();
+        verdict.put("result", failed.isEmpty() ? "PASS" : "FAIL");
+        verdict.put("gates", gates);
+        getContext().onSuccess(verdict);
+    }
+
+    private synchronized boolean markDone() {
+        if (done) {
+            return false;
+        }
+        done = true;
+        return true;
+    }
+
+    @Override
+    public void stop(@NonNull Throwable cause) throws Exception {
+        if (markDone()) {
+            // Cancels the requests of the gates still polling
+            for (ArmorCodeGatePoller poller : pollers) {
+                poller.cancel();
+            }
+            getContext().onFailure(cause);
+        }
+    }
+
+    @Override
+    public void onResume() {
+        int inProgress;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            inProgress = started - finished;
+        }
+        try {
+            resolveContext();
+        } catch (Exception e) {
+            getContext().onFailure(e);
+            return;
+        }
+        listener.getLogger()
+                .println("[INFO] Resuming " + inProgress + " of " + pollers.size()
+                        + " ArmorCode release gates after a Jenkins restart");
+        for (int i = 0; i < pollers.size(); i++) {
+            boolean resume;
+            synchronized (this) {
+                resume = i < started && results[i] == null;
+            }
+            if (resume) {
+                pollers.get(i).resume(run, listenerFor(i), workspace, new GateHandler(i));
+            }
+        }
+        startMore();
+    }
+
+    @Override
+    public String getStatus() {
+        synchronized (this) {
+            return "Waiting for " + (pollers.size() - finished) + " of " + pollers.size()
+                    + " ArmorCode release gates";
+        }
+    }
+
+    /**
+     * Records the outcome of one gate.
+     */
+    private class GateHandler implements ArmorCodeGatePoller.Handler {
+        private final int index;
+
+        GateHandler(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void onVerdict(ArmorCodeReleaseGateBuilder.PollOutcome outcome) {
+            boolean passed = outcome == ArmorCodeReleaseGateBuilder.PollOutcome.PASSED;
+            onGateDone(index, new GateResult(pollers.get(index).getGate(), passed ? "PASS" : "FAIL", null, false));
+        }
+
+        @Override
+        public void onError(Throwable cause) {
+            onGateDone(index, failure(pollers.get(index).getGate(), cause));
+        }
+
+        @Override
+        public void saveState() {
+            getContext().saveState();
+        }
+    }
+
+    /**
+     * Prefixes every line with the gate it belongs to, writing each line in one call so lines of
+     * concurrent gates do not interleave.
+     */
+    private static final class LabelledStream extends LineTransformationOutputStream {
+        private final OutputStream out;
+        private final byte[] prefix;
+
+        LabelledStream(OutputStream out, String prefix) {
+            this.out = out;
+            this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected void eol(byte[] b, int len) throws IOException {
+            byte[] line = new byte[prefix.length + len];
+            System.arraycopy(prefix, 0, line, 0, prefix.length);
+            System.arraycopy(b, 0, line, prefix.length, len);
+            out.write(line);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
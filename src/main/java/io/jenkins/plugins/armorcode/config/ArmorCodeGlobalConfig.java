@@ -4,8 +4,16 @@ import antlr.ANTLRException;
 import hudson.Extension;
 import hudson.scheduler.CronTab;
 import hudson.util.FormValidation;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import hudson.util.ListBoxModel;
+import hudson.util.Secret;
+import io.jenkins.plugins.armorcode.gate.GateCircuitBreaker;
+import io.jenkins.plugins.armorcode.gate.GateRequestLimiter;
+import io.jenkins.plugins.armorcode.gate.GateVerdictCache;
+import io.jenkins.plugins.armorcode.http.ArmorCodeHttpClient;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import jenkins.model.GlobalConfiguration;
 import jenkins.model.Jenkins;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -15,6 +23,13 @@ import org.kohsuke.stapler.verb.POST;
 @Extension
 public class ArmorCodeGlobalConfig extends GlobalConfiguration {
 
+    public static final int DEFAULT_MAX_RETRY_DELAY_SECONDS = 300;
+    public static final int DEFAULT_GATE_TIMEOUT_SECONDS = 3600;
+    public static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 60;
+    public static final int DEFAULT_FULL_DISCOVERY_INTERVAL_HOURS = 168;
+    public static final int DEFAULT_DISCOVERY_LOG_SCAN_KB = 1024;
+    public static final int MAX_DISCOVERY_LOG_SCAN_KB = 16 * 1024;
+
     private String baseUrl = "https://app.armorcode.com";
     private boolean monitorBuilds = false;
     private String jobFilter = ""; // Default to all jobs
@@ -23,6 +38,43 @@ public class ArmorCodeGlobalConfig extends GlobalConfiguration {
 
     private String cronExpression = "H H * * *"; // default to daily once per day at a random hour
 
+    // Only send jobs that changed since the last run, with a full scan at most this many hours apart
+    private boolean incrementalDiscovery = false;
+    private int fullDiscoveryIntervalHours = DEFAULT_FULL_DISCOVERY_INTERVAL_HOURS;
+
+    // Build log bytes discovery may read per job, split between the start and the end of the log
+    private int discoveryLogScanKb = DEFAULT_DISCOVERY_LOG_SCAN_KB;
+
+    // Requests to ArmorCode the shared HTTP client sends at the same time
+    private int httpMaxConcurrentRequests = ArmorCodeHttpClient.DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+    // Share in-flight gate requests between builds, not just within one build
+    private boolean coalesceAcrossBuilds = false;
+
+    // PASS verdict cache; a TTL of 0 disables it
+    private int verdictCacheTtlSeconds = 300;
+    private int verdictCacheMaxEntries = 1000;
+
+    // Upper bound for the backoff between gate polls, unless a job sets its own
+    private int maxRetryDelaySeconds = DEFAULT_MAX_RETRY_DELAY_SECONDS;
+
+    // Time budget for a whole gate check unless a job sets its own, and for each request within it
+    private int gateTimeoutSeconds = DEFAULT_GATE_TIMEOUT_SECONDS;
+    private int requestTimeoutSeconds = DEFAULT_REQUEST_TIMEOUT_SECONDS;
+
+    // Controller-wide limits for release gate requests; 0 disables a limit, and both are off until set
+    private int gateMaxConcurrentRequests = 0;
+    private int gateRequestsPerSecond = 0;
+
+    // Circuit breaker for each build validation endpoint; off unless an administrator sets a threshold
+    private int circuitFailureThreshold = 0;
+    private int circuitSlowCallSeconds = 30;
+    private int circuitOpenSeconds = 60;
+    private String circuitFallback = "fail"; // "fail", "warn" or "pass"
+
+    // Shared secret ArmorCode sends with pushed verdicts; callbacks are disabled while unset
+    private Secret callbackSecret;
+
     public ArmorCodeGlobalConfig() {
         load(); // Load saved config
 
@@ -147,13 +199,14 @@ public class ArmorCodeGlobalConfig extends GlobalConfiguration {
         }
 
         try {
-            URL url = new URL(baseUrl + "/client/ping");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(5000);
-
-            int responseCode = conn.getResponseCode();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/client/ping"))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+
+            int responseCode = ArmorCodeHttpClient.get()
+                    .send(request, HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
             if (responseCode == 200) {
                 return FormValidation.ok("Connection successful!");
             } else {
@@ -164,6 +217,195 @@ public class ArmorCodeGlobalConfig extends GlobalConfiguration {
         }
     }
 
+    public int getHttpMaxConcurrentRequests() {
+        return httpMaxConcurrentRequests > 0
+                ? httpMaxConcurrentRequests
+                : ArmorCodeHttpClient.DEFAULT_MAX_CONCURRENT_REQUESTS;
+    }
+
+    @DataBoundSetter
+    public void setHttpMaxConcurrentRequests(int httpMaxConcurrentRequests) {
+        this.httpMaxConcurrentRequests = httpMaxConcurrentRequests > 0
+                ? httpMaxConcurrentRequests
+                : ArmorCodeHttpClient.DEFAULT_MAX_CONCURRENT_REQUESTS;
+        save();
+    }
+
+    public boolean isCoalesceAcrossBuilds() {
+        return coalesceAcrossBuilds;
+    }
+
+    @DataBoundSetter
+    public void setCoalesceAcrossBuilds(boolean coalesceAcrossBuilds) {
+        this.coalesceAcrossBuilds = coalesceAcrossBuilds;
+        save();
+    }
+
+    public int getVerdictCacheTtlSeconds() {
+        return verdictCacheTtlSeconds;
+    }
+
+    @DataBoundSetter
+    public void setVerdictCacheTtlSeconds(int verdictCacheTtlSeconds) {
+        this.verdictCacheTtlSeconds = Math.max(0, verdictCacheTtlSeconds);
+        save();
+    }
+
+    public int getVerdictCacheMaxEntries() {
+        return verdictCacheMaxEntries;
+    }
+
+    @DataBoundSetter
+    public void setVerdictCacheMaxEntries(int verdictCacheMaxEntries) {
+        this.verdictCacheMaxEntries = Math.max(0, verdictCacheMaxEntries);
+        save();
+    }
+
+    public int getMaxRetryDelaySeconds() {
+        return maxRetryDelaySeconds > 0 ? maxRetryDelaySeconds : DEFAULT_MAX_RETRY_DELAY_SECONDS;
+    }
+
+    @DataBoundSetter
+    public void setMaxRetryDelaySeconds(int maxRetryDelaySeconds) {
+        this.maxRetryDelaySeconds = maxRetryDelaySeconds > 0 ? maxRetryDelaySeconds : DEFAULT_MAX_RETRY_DELAY_SECONDS;
+        save();
+    }
+
+    public int getGateTimeoutSeconds() {
+        return gateTimeoutSeconds > 0 ? gateTimeoutSeconds : DEFAULT_GATE_TIMEOUT_SECONDS;
+    }
+
+    @DataBoundSetter
+    public void setGateTimeoutSeconds(int gateTimeoutSeconds) {
+        this.gateTimeoutSeconds = gateTimeoutSeconds > 0 ? gateTimeoutSeconds : DEFAULT_GATE_TIMEOUT_SECONDS;
+        save();
+    }
+
+    public int getRequestTimeoutSeconds() {
+        return requestTimeoutSeconds > 0 ? requestTimeoutSeconds : DEFAULT_REQUEST_TIMEOUT_SECONDS;
+    }
+
+    @DataBoundSetter
+    public void setRequestTimeoutSeconds(int requestTimeoutSeconds) {
+        this.requestTimeoutSeconds =
+                requestTimeoutSeconds > 0 ? requestTimeoutSeconds : DEFAULT_REQUEST_TIMEOUT_SECONDS;
+        save();
+    }
+
+    public int getGateMaxConcurrentRequests() {
+        return gateMaxConcurrentRequests;
+    }
+
+    @DataBoundSetter
+    public void setGateMaxConcurrentRequests(int gateMaxConcurrentRequests) {
+        this.gateMaxConcurrentRequests = Math.max(0, gateMaxConcurrentRequests);
+        save();
+    }
+
+    public int getGateRequestsPerSecond() {
+        return gateRequestsPerSecond;
+    }
+
+    @DataBoundSetter
+    public void setGateRequestsPerSecond(int gateRequestsPerSecond) {
+        this.gateRequestsPerSecond = Math.max(0, gateRequestsPerSecond);
+        save();
+    }
+
+    /**
+     * Release gate requests in flight and waiting for a slot, shown on the configuration page.
+     */
+    public String getGateRequestStats() {
+        GateRequestLimiter limiter = GateRequestLimiter.get();
+        return limiter.getInFlightCount() + " in flight, " + limiter.getQueueDepth() + " waiting";
+    }
+
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+
+    @DataBoundSetter
+    public void setCircuitFailureThreshold(int circuitFailureThreshold) {
+        this.circuitFailureThreshold = Math.max(0, circuitFailureThreshold);
+        save();
+    }
+
+    public int getCircuitSlowCallSeconds() {
+        return circuitSlowCallSeconds > 0 ? circuitSlowCallSeconds : 30;
+    }
+
+    @DataBoundSetter
+    public void setCircuitSlowCallSeconds(int circuitSlowCallSeconds) {
+        this.circuitSlowCallSeconds = circuitSlowCallSeconds > 0 ? circuitSlowCallSeconds : 30;
+        save();
+    }
+
+    public int getCircuitOpenSeconds() {
+        return circuitOpenSeconds > 0 ? circuitOpenSeconds : 60;
+    }
+
+    @DataBoundSetter
+    public void setCircuitOpenSeconds(int circuitOpenSeconds) {
+        this.circuitOpenSeconds = circuitOpenSeconds > 0 ? circuitOpenSeconds : 60;
+        save();
+    }
+
+    public String getCircuitFallback() {
+        return circuitFallback != null ? circuitFallback : "fail";
+    }
+
+    @DataBoundSetter
+    public void setCircuitFallback(String circuitFallback) {
+        this.circuitFallback = circuitFallback != null ? circuitFallback : "fail";
+        save();
+    }
+
+    public ListBoxModel doFillCircuitFallbackItems() {
+        ListBoxModel items = new ListBoxModel();
+        items.add("Fail the build", "fail");
+        items.add("Mark the build unstable and continue", "warn");
+        items.add("Pass the build", "pass");
+        return items;
+    }
+
+    /**
+     * Current circuit breaker state of each endpoint, shown on the configuration page.
+     */
+    public String getCircuitState() {
+        return GateCircuitBreaker.describeAll();
+    }
+
+    @POST
+    public FormValidation doResetCircuitBreaker() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        GateCircuitBreaker.resetAll();
+        return FormValidation.ok("Circuit breakers closed");
+    }
+
+    public Secret getCallbackSecret() {
+        return callbackSecret;
+    }
+
+    @DataBoundSetter
+    public void setCallbackSecret(Secret callbackSecret) {
+        this.callbackSecret = callbackSecret;
+        save();
+    }
+
+    /**
+     * Number of cached PASS verdicts, shown on the configuration page.
+     */
+    public int getVerdictCacheSize() {
+        return GateVerdictCache.get().size();
+    }
+
+    @POST
+    public FormValidation doClearVerdictCache() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        int cleared = GateVerdictCache.get().clear();
+        return FormValidation.ok("Cleared " + cleared + " cached verdicts");
+    }
+
     public String getCronExpression() {
         return cronExpression;
     }
@@ -179,6 +421,44 @@ public class ArmorCodeGlobalConfig extends GlobalConfiguration {
         // Note: No need to reschedule - the AsyncPeriodicWork runs every minute and checks the cron expression
     }
 
+    public boolean isIncrementalDiscovery() {
+        return incrementalDiscovery;
+    }
+
+    @DataBoundSetter
+    public void setIncrementalDiscovery(boolean incrementalDiscovery) {
+        this.incrementalDiscovery = incrementalDiscovery;
+        save();
+    }
+
+    public int getFullDiscoveryIntervalHours() {
+        return fullDiscoveryIntervalHours > 0 ? fullDiscoveryIntervalHours : DEFAULT_FULL_DISCOVERY_INTERVAL_HOURS;
+    }
+
+    @DataBoundSetter
+    public void setFullDiscoveryIntervalHours(int fullDiscoveryIntervalHours) {
+        this.fullDiscoveryIntervalHours =
+                fullDiscoveryIntervalHours > 0 ? fullDiscoveryIntervalHours : DEFAULT_FULL_DISCOVERY_INTERVAL_HOURS;
+        save();
+    }
+
+    public int getDiscoveryLogScanKb() {
+        return discoveryLogScanKb > 0
+                ? Math.min(discoveryLogScanKb, MAX_DISCOVERY_LOG_SCAN_KB)
+                : DEFAULT_DISCOVERY_LOG_SCAN_KB;
+    }
+
+    /**
+     * Sets the build log budget, capped at {@value #MAX_DISCOVERY_LOG_SCAN_KB} KB since it is read into memory.
+     */
+    @DataBoundSetter
+    public void setDiscoveryLogScanKb(int discoveryLogScanKb) {
+        this.discoveryLogScanKb = discoveryLogScanKb > 0
+                ? Math.min(discoveryLogScanKb, MAX_DISCOVERY_LOG_SCAN_KB)
+                : DEFAULT_DISCOVERY_LOG_SCAN_KB;
+        save();
+    }
+
     /**
      * Validating cron expression
      */
@@ -3,6 +3,7 @@ package io.jenkins.plugins.armorcode.credentials;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.domains.DomainRequirement;
+import hudson.model.Item;
 import hudson.model.Run;
 import hudson.security.ACL;
 import java.util.Collections;
@@ -18,10 +19,21 @@ public class CredentialsUtils {
      * @return the secret text or null if not found
      */
     public static String getSecretText(Run<?, ?> run, String credentialsId) {
+        return getSecretText(run.getParent(), credentialsId);
+    }
+
+    /**
+     * Retrieves a secret text credential visible to the given item.
+     * Used where no build exists yet, e.g. while a build is still waiting in the queue.
+     *
+     * @param item          the job whose credentials context is searched
+     * @param credentialsId the credentials ID as configured in Jenkins Credentials
+     * @return the secret text or null if not found
+     */
+    public static String getSecretText(Item item, String credentialsId) {
         List<DomainRequirement> domainRequirements = Collections.emptyList();
         StringCredentials credential = CredentialsMatchers.firstOrNull(
-                CredentialsProvider.lookupCredentials(
-                        StringCredentials.class, run.getParent(), ACL.SYSTEM, domainRequirements),
+                CredentialsProvider.lookupCredentials(StringCredentials.class, item, ACL.SYSTEM, domainRequirements),
                 CredentialsMatchers.withId(credentialsId));
         return credential != null ? credential.getSecret().getPlainText() : null;
     }
@@ -34,6 +46,13 @@ public class CredentialsUtils {
         return getSecretText(run, "ARMORCODE_TOKEN");
     }
 
+    /**
+     * Convenience method to get the ArmorCode Token for a job before it has a build.
+     */
+    public static String getArmorCodeToken(Item item) {
+        return getSecretText(item, "ARMORCODE_TOKEN");
+    }
+
     /**
      * Gets the ArmorCode token from system credentials.
      * Used for system-level operations like job discovery.
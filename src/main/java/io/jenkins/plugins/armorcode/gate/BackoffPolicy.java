@@ -0,0 +1,73 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how long a gate waits before polling again.
+ * A delay requested by ArmorCode (a {@code Retry-After} header or a {@code nextPollSeconds} field) is
+ * honoured as is. Otherwise the gate waits at least the base delay, as it always has, plus a random extra
+ * that grows with every attempt, so builds started together drift apart instead of polling ArmorCode in
+ * lockstep. A base delay of 0 polls again immediately.
+ */
+public final class BackoffPolicy {
+    private final long baseSeconds;
+    private final long maxSeconds;
+
+    /**
+     * @param baseSeconds shortest wait, and the length of the first one
+     * @param maxSeconds  longest wait; it is never shorter than the base delay
+     */
+    public BackoffPolicy(long baseSeconds, long maxSeconds) {
+        this.baseSeconds = Math.max(0, baseSeconds);
+        this.maxSeconds = Math.max(this.baseSeconds, maxSeconds);
+    }
+
+    /**
+     * Delay before the poll following the given attempt (1-based).
+     *
+     * @param serverHintSeconds delay requested by ArmorCode, or 0 if none
+     */
+    public long delaySeconds(int attempt, long serverHintSeconds) {
+        if (serverHintSeconds > 0) {
+            return serverHintSeconds;
+        }
+        return baseSeconds + ThreadLocalRandom.current().nextLong(capSeconds(attempt) - baseSeconds + 1);
+    }
+
+    /**
+     * Longest wait after the given attempt: the base delay, doubled per further attempt up to the maximum.
+     */
+    long capSeconds(int attempt) {
+        // Stop doubling once the cap is reached so the shift cannot overflow
+        long cap = baseSeconds;
+        for (int i = 1; i < attempt && cap > 0 && cap < maxSeconds; i++) {
+            cap <<= 1;
+        }
+        return Math.min(cap, maxSeconds);
+    }
+
+    /**
+     * Parses a {@code Retry-After} value, either delta-seconds or an HTTP date. Returns 0 if absent or invalid.
+     */
+    public static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            // Not delta-seconds; try an HTTP date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            long seconds = Duration.between(ZonedDateTime.now(at.getZone()), at).getSeconds();
+            return Math.max(0, seconds);
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.io.IOException;
+
+/**
+ * A gate request was not sent because the {@link GateCircuitBreaker} is open.
+ */
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException() {
+        super("ArmorCode is unavailable (circuit breaker open)");
+    }
+}
@@ -0,0 +1,87 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Gates currently waiting on HOLD, keyed by the job name and build number they report to ArmorCode and by
+ * the product, sub-products and environment they check. A verdict posted to the callback endpoint is handed
+ * straight to the matching gate, so it resumes without waiting out its retry delay; other gates of the
+ * same build keep waiting for their own verdict.
+ */
+public final class GateCallbackRegistry {
+    private static final GateCallbackRegistry INSTANCE = new GateCallbackRegistry();
+
+    private final ConcurrentHashMap<String, List<Consumer<String>>> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * Handle returned by {@link #register}; closing it stops delivery.
+     */
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static GateCallbackRegistry get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sub-products are compared as a set, so their order in the callback body does not matter.
+     */
+    private static String key(
+            String jobName, String buildNumber, String product, Collection<String> subProducts, String env) {
+        String subProductsKey = subProducts.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining("\n"));
+        return jobName + '#' + buildNumber + '|' + product + '|' + env + '|' + subProductsKey;
+    }
+
+    /**
+     * Registers a gate of the given build to receive pushed verdicts as raw JSON responses.
+     */
+    public Registration register(
+            String jobName,
+            String buildNumber,
+            String product,
+            Collection<String> subProducts,
+            String env,
+            Consumer<String> waiter) {
+        String key = key(jobName, buildNumber, product, subProducts, env);
+        waiters.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(waiter);
+        return () -> waiters.computeIfPresent(key, (k, list) -> {
+            list.remove(waiter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Hands a pushed verdict to the gates of the build that check the given product, sub-products and
+     * environment, and returns how many received it.
+     */
+    public int deliver(
+            String jobName,
+            String buildNumber,
+            String product,
+            Collection<String> subProducts,
+            String env,
+            String response) {
+        List<Consumer<String>> targets = waiters.get(key(jobName, buildNumber, product, subProducts, env));
+        if (targets == null) {
+            return 0;
+        }
+        for (Consumer<String> waiter : targets) {
+            waiter.accept(response);
+        }
+        return targets.size();
+    }
+}
@@ -0,0 +1,125 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker for one build validation endpoint, so a job pointing at a broken URL cannot block gates
+ * that use another one. After enough consecutive failed or slow requests it opens, and gates are answered
+ * with the configured fallback verdict without contacting ArmorCode. Once the open period has passed a
+ * single probe request is let through (half-open): success closes the breaker, failure opens it again.
+ */
+public final class GateCircuitBreaker {
+    // Keyed by API URL; there are only as many as configured ArmorCode endpoints
+    private static final Map<String, GateCircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    /**
+     * The breaker for the given API URL.
+     */
+    public static GateCircuitBreaker get(String apiUrl) {
+        return BREAKERS.computeIfAbsent(apiUrl, url -> new GateCircuitBreaker());
+    }
+
+    /**
+     * Closes the breakers of all endpoints.
+     */
+    public static void resetAll() {
+        BREAKERS.clear();
+    }
+
+    /**
+     * Human-readable state of every endpoint's breaker for the configuration page.
+     */
+    public static String describeAll() {
+        StringBuilder states = new StringBuilder();
+        for (Map.Entry<String, GateCircuitBreaker> entry : new TreeMap<>(BREAKERS).entrySet()) {
+            if (states.length() > 0) {
+                states.append("; ");
+            }
+            states.append(entry.getKey()).append(": ").append(entry.getValue().describe());
+        }
+        return states.length() > 0 ? states.toString() : "CLOSED";
+    }
+
+    /**
+     * Whether a request may be sent now. When the open period has passed, the first caller becomes the probe.
+     */
+    public synchronized boolean allowRequest(long openMillis) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure(int failureThreshold) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+        probeInFlight = false;
+    }
+
+    /**
+     * A request ended without telling anything about ArmorCode's health, e.g. it was interrupted.
+     */
+    public synchronized void recordAbandoned() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized void reset() {
+        recordSuccess();
+    }
+
+    /**
+     * Human-readable state of this breaker.
+     */
+    public synchronized String describe() {
+        switch (state) {
+            case OPEN:
+                return "OPEN since " + new Date(openedAt) + " after " + consecutiveFailures + " consecutive failures";
+            case HALF_OPEN:
+                return "HALF_OPEN (probing ArmorCode)";
+            default:
+                return consecutiveFailures == 0
+                        ? "CLOSED"
+                        : "CLOSED (" + consecutiveFailures + " consecutive failures)";
+        }
+    }
+}
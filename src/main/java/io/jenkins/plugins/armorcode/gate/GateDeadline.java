@@ -0,0 +1,58 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Wall-clock budget for a whole release gate check. Each request gets at most the remaining budget as
+ * its timeout, and waits between polls are shortened so the gate gives up on time instead of after
+ * one more full delay. Based on the wall clock, so a deadline saved with a build still holds after a restart.
+ */
+public final class GateDeadline implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final GateDeadline NONE = new GateDeadline(0);
+
+    // Epoch millis, or 0 for no deadline
+    private final long deadlineMillis;
+
+    private GateDeadline(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * A deadline the given number of seconds from now, or none if it is not positive.
+     */
+    public static GateDeadline after(long timeoutSeconds) {
+        return timeoutSeconds > 0 ? new GateDeadline(System.currentTimeMillis() + timeoutSeconds * 1000) : NONE;
+    }
+
+    public long remainingMillis() {
+        if (deadlineMillis == 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineMillis - System.currentTimeMillis());
+    }
+
+    public boolean isExpired() {
+        return remainingMillis() == 0;
+    }
+
+    /**
+     * Timeout for the next request: the per-request limit, or the remaining budget if that is shorter.
+     */
+    public Duration attemptTimeout(Duration requestTimeout) {
+        long remaining = remainingMillis();
+        return remaining < requestTimeout.toMillis() ? Duration.ofMillis(Math.max(1, remaining)) : requestTimeout;
+    }
+
+    /**
+     * Shortens a wait so it ends no later than the deadline.
+     */
+    public long clampDelaySeconds(long delaySeconds) {
+        long remaining = remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            return delaySeconds;
+        }
+        return Math.min(delaySeconds, (remaining + 999) / 1000);
+    }
+}
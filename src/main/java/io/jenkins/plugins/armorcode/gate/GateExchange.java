@@ -0,0 +1,136 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import io.jenkins.plugins.armorcode.http.LimitedBody;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import jenkins.security.MasterToSlaveCallable;
+
+/**
+ * One build validation request and the reading of its response. Used directly on the controller, or
+ * sent to the build's agent so the TLS handshake, transfer and parsing happen there and only the
+ * parsed {@link GateResponse} travels back over the channel.
+ * When the previous response of the build carried a validator, the request is conditional: a
+ * {@code 304 Not Modified} or {@code "unchanged": true} reply reuses the previous response without
+ * transferring or parsing it again.
+ */
+public final class GateExchange extends MasterToSlaveCallable<GateResponse, IOException> {
+    private static final long serialVersionUID = 1L;
+
+    // Gate responses are small; larger bodies are rejected rather than buffered
+    public static final int MAX_RESPONSE_BYTES = 64 * 1024;
+
+    // How much of an error body ends up in the build log
+    private static final int MAX_ERROR_EXCERPT_BYTES = 2048;
+
+    private final String apiUrl;
+    private final String token;
+    private final byte[] body;
+    private final Duration timeout;
+    private final GateResponse previous;
+
+    /**
+     * @param previous the last response for the same build, or null on the first attempt
+     */
+    public GateExchange(String apiUrl, String token, byte[] body, Duration timeout, GateResponse previous) {
+        this.apiUrl = apiUrl;
+        this.token = token;
+        this.body = body;
+        this.timeout = timeout;
+        this.previous = previous;
+    }
+
+    /**
+     * Builds the request for this exchange.
+     */
+    public HttpRequest toRequest() {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(apiUrl))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Charset", "UTF-8")
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (previous != null && previous.getValidator() != null) {
+            request.header("If-None-Match", previous.getValidator());
+        }
+        return request.build();
+    }
+
+    /**
+     * Body handler to send {@link #toRequest()} with.
+     */
+    public static HttpResponse.BodyHandler<LimitedBody> bodyHandler() {
+        return LimitedBody.handler(MAX_RESPONSE_BYTES);
+    }
+
+    /**
+     * Turns the response into a {@link GateResponse}, or the matching exception for a non-2xx status.
+     */
+    public GateResponse read(HttpResponse<LimitedBody> response) throws IOException {
+        // Check response code before using the body
+        int responseCode = response.statusCode();
+        long retryAfter = BackoffPolicy.parseRetryAfter(
+                response.headers().firstValue("Retry-After").orElse(null));
+        if (responseCode == 304 && previous != null) {
+            return previous.withNextPollSeconds(retryAfter);
+        }
+        if (responseCode >= 200 && responseCode < 300) {
+            if (response.body().isTruncated()) {
+                throw new IOException("ArmorCode response exceeded " + MAX_RESPONSE_BYTES + " bytes");
+            }
+            GateResponse parsed = GateResponse.parse(response.body().getBytes());
+            if (parsed.isUnchanged() && previous != null) {
+                return previous.withNextPollSeconds(retryAfter);
+            }
+            // A Retry-After header becomes part of the response, so it reaches every gate sharing it
+            return parsed.withNextPollSeconds(retryAfter)
+                    .withValidator(response.headers().firstValue("ETag").orElse(null));
+        }
+
+        // Error case - include the start of the error response
+        String message = "Server returned HTTP response code: " + responseCode + " for URL: " + apiUrl
+                + " with message: " + errorExcerpt(response.body());
+        if (retryAfter > 0) {
+            throw new RetryAfterException(message, responseCode, retryAfter);
+        }
+        throw new GateHttpException(message, responseCode);
+    }
+
+    private static String errorExcerpt(LimitedBody body) {
+        byte[] bytes = body.getBytes();
+        if (bytes.length <= MAX_ERROR_EXCERPT_BYTES) {
+            return body.asText();
+        }
+        return new String(bytes, 0, MAX_ERROR_EXCERPT_BYTES, StandardCharsets.UTF_8) + "... (truncated)";
+    }
+
+    /**
+     * Runs on the agent, using the agent's own network route to ArmorCode.
+     */
+    @Override
+    public GateResponse call() throws IOException {
+        try {
+            return read(AgentClient.CLIENT.send(toRequest(), bodyHandler()));
+        } catch (InterruptedException e) {
+            // The build was aborted on the controller
+            Thread.currentThread().interrupt();
+            throw new IOException("ArmorCode request was interrupted", e);
+        }
+    }
+
+    /**
+     * Client kept for the lifetime of the agent JVM, so polls from the same agent reuse connections.
+     * The controller's proxy settings are not available here; the agent's default proxy selector applies.
+     */
+    private static final class AgentClient {
+        private static final HttpClient CLIENT = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.io.IOException;
+
+/**
+ * ArmorCode answered a gate request with a non-2xx status.
+ */
+public class GateHttpException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public GateHttpException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Whether the status points at an unhealthy service rather than a problem with this request.
+     */
+    public boolean isServerSide() {
+        return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+    }
+}
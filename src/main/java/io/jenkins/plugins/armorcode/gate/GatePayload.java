@@ -0,0 +1,144 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Build validation request body for one gate of one build. Everything except the attempt number is
+ * escaped and encoded to UTF-8 once, so each attempt only copies two byte arrays around the
+ * {@code current} value. It also keeps the build's last response, whose validator makes the next poll
+ * a conditional request.
+ */
+public final class GatePayload {
+    private final String buildNumber;
+    private final String jobName;
+    private final int end;
+    private final String jobUrl;
+
+    // Body up to and including the opening quote of "current", and from its closing quote on
+    private final byte[] head;
+    private final byte[] tail;
+
+    private volatile GateResponse lastResponse;
+
+    private GatePayload(String buildNumber, String jobName, int end, String jobUrl, byte[] head, byte[] tail) {
+        this.buildNumber = buildNumber;
+        this.jobName = jobName;
+        this.end = end;
+        this.jobUrl = jobUrl;
+        this.head = head;
+        this.tail = tail;
+    }
+
+    /**
+     * Encodes the parts of the body that stay the same across the attempts of a build.
+     */
+    public static GatePayload of(
+            String env,
+            String product,
+            List<String> subProducts,
+            String buildNumber,
+            String jobName,
+            int end,
+            String jobUrl) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        write(out, "{\"env\": ");
+        quote(out, env);
+        write(out, ", \"product\": ");
+        quote(out, product);
+        write(out, ", \"subProducts\": ");
+        array(out, subProducts);
+        write(out, ", \"buildNumber\": ");
+        quote(out, buildNumber);
+        write(out, ", \"jobName\": ");
+        quote(out, jobName);
+        write(out, ", \"current\": \"");
+        byte[] head = out.toByteArray();
+
+        out.reset();
+        write(out, "\", \"end\": ");
+        quote(out, String.valueOf(end));
+        write(out, ", \"jobURL\": ");
+        quote(out, jobUrl);
+        write(out, "}");
+        return new GatePayload(buildNumber, jobName, end, jobUrl, head, out.toByteArray());
+    }
+
+    public String getBuildNumber() {
+        return buildNumber;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    /**
+     * Whether this payload was encoded for the given build; the gate configuration is assumed unchanged.
+     */
+    public boolean isFor(String buildNumber, String jobName, int end, String jobUrl) {
+        return this.end == end
+                && Objects.equals(this.buildNumber, buildNumber)
+                && Objects.equals(this.jobName, jobName)
+                && Objects.equals(this.jobUrl, jobUrl);
+    }
+
+    /**
+     * Returns the request body for the given attempt.
+     */
+    public byte[] forAttempt(int current) {
+        byte[] digits = Integer.toString(current).getBytes(StandardCharsets.US_ASCII);
+        byte[] body = new byte[head.length + digits.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(digits, 0, body, head.length, digits.length);
+        System.arraycopy(tail, 0, body, head.length + digits.length, tail.length);
+        return body;
+    }
+
+    /**
+     * The last response received for this build, or null before the first one.
+     */
+    public GateResponse getLastResponse() {
+        return lastResponse;
+    }
+
+    public void setLastResponse(GateResponse lastResponse) {
+        this.lastResponse = lastResponse;
+    }
+
+    /**
+     * Renders a list of strings as a JSON array, e.g. for use in cache keys.
+     */
+    public static String toJsonArray(List<String> values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        array(out, values);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void array(ByteArrayOutputStream out, List<String> values) {
+        out.write('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            quote(out, values.get(i));
+        }
+        out.write(']');
+    }
+
+    private static void quote(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            write(out, "null");
+            return;
+        }
+        out.write('"');
+        out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+        out.write('"');
+    }
+
+    private static void write(ByteArrayOutputStream out, String ascii) {
+        out.writeBytes(ascii.getBytes(StandardCharsets.US_ASCII));
+    }
+}
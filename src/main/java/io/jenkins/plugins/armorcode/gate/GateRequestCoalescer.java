@@ -0,0 +1,77 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Single-flight registry for gate requests.
+ * Concurrent callers asking with the same key share one outstanding request and all receive its
+ * response, or its failure. Once the request completes the key is free again, so later polls always
+ * go to the server.
+ */
+public final class GateRequestCoalescer {
+    private static final GateRequestCoalescer INSTANCE = new GateRequestCoalescer();
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public static GateRequestCoalescer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs the request unless an identical one is already in flight, in which case its result is awaited.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Callable<T> request) throws Exception {
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            // Callers sharing a key always ask for the same type of response
+            return (T) await(existing);
+        }
+        try {
+            T response = request.call();
+            leader.complete(response);
+            return response;
+        } catch (Throwable t) {
+            leader.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> shared) throws Exception {
+        try {
+            return shared.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InterruptedException) {
+                // The leader was aborted, which says nothing about this caller's build
+                throw new IOException("Shared ArmorCode request was interrupted", cause);
+            }
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Forgets the requests in flight, so later callers start their own. Callers already waiting on one still
+     * receive its result.
+     */
+    public void clear() {
+        inFlight.clear();
+    }
+
+    /**
+     * Number of distinct requests currently in flight.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,128 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Controller-wide limits for gate requests: at most a fixed number in flight, and no more than a given
+ * rate (token bucket). Callers over either limit wait in FIFO order instead of failing, up to their own
+ * timeout. The number of waiting callers is exposed as the queue depth.
+ */
+public final class GateRequestLimiter {
+    private static final GateRequestLimiter INSTANCE = new GateRequestLimiter();
+
+    // Rebuilt when the limit changes; permits are always returned to the semaphore they came from
+    private volatile Semaphore inFlight = new Semaphore(Integer.MAX_VALUE, true);
+    private volatile int inFlightLimit = 0;
+
+    // Token bucket, refilled lazily; the fair lock makes waiters take tokens in arrival order
+    private final ReentrantLock bucketLock = new ReentrantLock(true);
+    private double tokens;
+    private long lastRefillNanos;
+    private boolean bucketStarted;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Held while a request is in flight; closing it frees the slot.
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static GateRequestLimiter get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits for a free slot and a rate token.
+     *
+     * @param maxInFlight       concurrent request limit, or 0 for none
+     * @param requestsPerSecond sustained rate, also the burst size, or 0 for none
+     * @param timeoutMillis     how long to wait before giving up
+     * @throws IOException if the limits did not allow the request within the timeout
+     */
+    public Permit acquire(int maxInFlight, int requestsPerSecond, long timeoutMillis)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        waiting.incrementAndGet();
+        try {
+            if (requestsPerSecond > 0) {
+                takeToken(requestsPerSecond, deadline);
+            }
+            Semaphore semaphore = semaphoreFor(maxInFlight);
+            if (!semaphore.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new IOException("Timed out waiting for a free ArmorCode request slot");
+            }
+            active.incrementAndGet();
+            return () -> {
+                active.decrementAndGet();
+                semaphore.release();
+            };
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private Semaphore semaphoreFor(int maxInFlight) {
+        int limit = maxInFlight > 0 ? maxInFlight : Integer.MAX_VALUE;
+        if (limit != inFlightLimit) {
+            synchronized (this) {
+                if (limit != inFlightLimit) {
+                    inFlight = new Semaphore(limit, true);
+                    inFlightLimit = limit;
+                }
+            }
+        }
+        return inFlight;
+    }
+
+    private void takeToken(int requestsPerSecond, long deadline) throws IOException, InterruptedException {
+        if (!bucketLock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            throw new IOException("Timed out waiting for the ArmorCode request rate limit");
+        }
+        try {
+            if (!bucketStarted) {
+                // Start with a full bucket
+                tokens = requestsPerSecond;
+                lastRefillNanos = System.nanoTime();
+                bucketStarted = true;
+            }
+            while (true) {
+                long now = System.nanoTime();
+                tokens = Math.min(requestsPerSecond, tokens + (now - lastRefillNanos) * requestsPerSecond / 1e9);
+                lastRefillNanos = now;
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                long waitNanos = (long) ((1 - tokens) * 1e9 / requestsPerSecond);
+                if (now + waitNanos > deadline) {
+                    throw new IOException("Timed out waiting for the ArmorCode request rate limit");
+                }
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        } finally {
+            bucketLock.unlock();
+        }
+    }
+
+    /**
+     * Number of callers waiting for a slot or a token.
+     */
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    /**
+     * Number of requests currently holding a slot.
+     */
+    public int getInFlightCount() {
+        return active.get();
+    }
+}
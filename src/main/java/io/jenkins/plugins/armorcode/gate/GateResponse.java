@@ -0,0 +1,420 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Immutable view of a build validation response, holding only the fields the gate uses.
+ * Severity and risk counts may arrive nested ({@code "severity": {"High": 2}}) or flattened
+ * ({@code "severity.High": 2}); nested values win when both are present.
+ * Responses are read with a streaming parser that skips every other field without building an object graph.
+ * Serializable, so a response read on an agent can be returned to the controller.
+ */
+public final class GateResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final String status;
+    private final int critical;
+    private final int high;
+    private final int medium;
+    private final int low;
+    private final int veryPoor;
+    private final int poor;
+    private final int fair;
+    private final int good;
+    private final String failureReasonText;
+    private final String detailsLink;
+    private final long nextPollSeconds;
+    private final boolean unchanged;
+    private final String validator;
+
+    private GateResponse(Builder b) {
+        int[] severity = b.nestedSeverity ? b.severity : b.flatSeverity;
+        int[] risk = b.nestedRisk ? b.risk : b.flatRisk;
+        this.status = b.status;
+        this.critical = severity[0];
+        this.high = severity[1];
+        this.medium = severity[2];
+        this.low = severity[3];
+        this.veryPoor = risk[0];
+        this.poor = risk[1];
+        this.fair = risk[2];
+        this.good = risk[3];
+        this.failureReasonText = b.failureReasonText;
+        this.detailsLink = b.detailsLink != null ? b.detailsLink : b.link;
+        this.nextPollSeconds = b.nextPollSeconds;
+        this.unchanged = b.unchanged;
+        // A version field serves as the validator when there is no ETag header
+        this.validator = b.version != null ? '"' + b.version.replace("\"", "") + '"' : null;
+    }
+
+    private GateResponse(GateResponse other, long nextPollSeconds, String validator) {
+        this.status = other.status;
+        this.critical = other.critical;
+        this.high = other.high;
+        this.medium = other.medium;
+        this.low = other.low;
+        this.veryPoor = other.veryPoor;
+        this.poor = other.poor;
+        this.fair = other.fair;
+        this.good = other.good;
+        this.failureReasonText = other.failureReasonText;
+        this.detailsLink = other.detailsLink;
+        this.nextPollSeconds = nextPollSeconds;
+        this.unchanged = other.unchanged;
+        this.validator = validator;
+    }
+
+    /**
+     * Parses a response body.
+     *
+     * @throws IOException if the body is not a JSON object
+     */
+    public static GateResponse parse(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Parses a response body.
+     *
+     * @throws IOException if the body is not a JSON object
+     */
+    public static GateResponse parse(String body) throws IOException {
+        return parse(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static GateResponse read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("ArmorCode response is not a JSON object");
+        }
+        Builder b = new Builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT && ("severity".equals(key) || "otherProperties".equals(key))) {
+                b.nested(key);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String bucket = parser.currentName();
+                    parser.nextToken();
+                    b.count(key, bucket, toInt(scalar(parser)), true);
+                }
+            } else {
+                b.field(key, scalar(parser));
+            }
+        }
+        return b.build();
+    }
+
+    /**
+     * Value of the current token; objects and arrays are skipped and read as null.
+     */
+    private static Object scalar(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case START_OBJECT:
+            case START_ARRAY:
+                parser.skipChildren();
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Copy with the given poll interval, unless ArmorCode already asked for one in the body.
+     */
+    public GateResponse withNextPollSeconds(long seconds) {
+        if (seconds <= 0 || nextPollSeconds > 0) {
+            return this;
+        }
+        return new GateResponse(this, seconds, validator);
+    }
+
+    /**
+     * Copy that uses the given ETag to validate later polls, if there is one.
+     */
+    public GateResponse withValidator(String etag) {
+        if (etag == null || etag.isBlank()) {
+            return this;
+        }
+        return new GateResponse(this, nextPollSeconds, etag);
+    }
+
+    /**
+     * Collects fields as a response is read.
+     */
+    static final class Builder {
+        private static final String[] SEVERITY_BUCKETS = {"Critical", "High", "Medium", "Low"};
+        private static final String[] RISK_BUCKETS = {"VERY_POOR", "POOR", "FAIR", "GOOD"};
+
+        private String status;
+        private final int[] severity = new int[4];
+        private final int[] flatSeverity = new int[4];
+        private final int[] risk = new int[4];
+        private final int[] flatRisk = new int[4];
+        private boolean nestedSeverity;
+        private boolean nestedRisk;
+        private String failureReasonText;
+        private String detailsLink;
+        private String link;
+        private long nextPollSeconds;
+        private boolean unchanged;
+        private String version;
+
+        /**
+         * Records a top-level scalar field; unknown fields are ignored.
+         */
+        void field(String key, Object value) {
+            String text = value != null ? value.toString() : null;
+            switch (key) {
+                case "status" -> status = text;
+                case "failureReasonText" -> failureReasonText =
+                        text == null || text.isEmpty() || "null".equals(text) ? null : text;
+                case "detailsLink" -> detailsLink = text;
+                case "link" -> link = text;
+                case "nextPollSeconds" -> nextPollSeconds = Math.max(0, toInt(value));
+                case "unchanged" -> unchanged = Boolean.parseBoolean(text);
+                case "version" -> version = text;
+                default -> {
+                    int dot = key.indexOf('.');
+                    if (dot > 0) {
+                        count(key.substring(0, dot), key.substring(dot + 1), toInt(value), false);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Records a severity or risk count, e.g. group {@code severity} and bucket {@code High}.
+         * Other groups and buckets are ignored.
+         */
+        void count(String group, String bucket, int value, boolean nested) {
+            if ("severity".equals(group)) {
+                int index = indexOf(SEVERITY_BUCKETS, bucket);
+                if (index >= 0) {
+                    (nested ? severity : flatSeverity)[index] = value;
+                }
+            } else if ("otherProperties".equals(group)) {
+                int index = indexOf(RISK_BUCKETS, bucket);
+                if (index >= 0) {
+                    (nested ? risk : flatRisk)[index] = value;
+                }
+            }
+        }
+
+        /**
+         * Marks a nested severity or risk object as present, so it wins over flattened counts.
+         */
+        void nested(String key) {
+            if ("severity".equals(key)) {
+                nestedSeverity = true;
+            } else if ("otherProperties".equals(key)) {
+                nestedRisk = true;
+            }
+        }
+
+        private static int indexOf(String[] buckets, String name) {
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        GateResponse build() {
+            return new GateResponse(this);
+        }
+    }
+
+    static int toInt(Object value) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Integer.parseInt(text.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The status, or {@code UNKNOWN} if the response had none.
+     */
+    public String getStatus() {
+        return status != null ? status : "UNKNOWN";
+    }
+
+    /**
+     * Whether the response carried a status at all. One without cannot be trusted to pass a gate.
+     */
+    public boolean hasStatus() {
+        return status != null && !status.isBlank();
+    }
+
+    /**
+     * Returns this response, or throws if it has no status, so the caller retries as for an unreadable reply.
+     *
+     * @throws IOException if the response has no status
+     */
+    public GateResponse requireStatus() throws IOException {
+        if (!hasStatus()) {
+            throw new IOException("ArmorCode response has no status");
+        }
+        return this;
+    }
+
+    /**
+     * Whether the SLA check itself passed the build, as opposed to a one-time manual RELEASE or a status
+     * the gate merely lets through. Only such a verdict holds for later builds of the same revision.
+     */
+    public boolean isPassed() {
+        return "SUCCESS".equalsIgnoreCase(status) || "PASS".equalsIgnoreCase(status);
+    }
+
+    public boolean isHold() {
+        return "HOLD".equalsIgnoreCase(status);
+    }
+
+    public boolean isFailed() {
+        return "FAILED".equalsIgnoreCase(status);
+    }
+
+    public int getCritical() {
+        return critical;
+    }
+
+    public int getHigh() {
+        return high;
+    }
+
+    public int getMedium() {
+        return medium;
+    }
+
+    public int getLow() {
+        return low;
+    }
+
+    public int getVeryPoor() {
+        return veryPoor;
+    }
+
+    public int getPoor() {
+        return poor;
+    }
+
+    public int getFair() {
+        return fair;
+    }
+
+    public int getGood() {
+        return good;
+    }
+
+    /**
+     * Whether the gate is severity based, i.e. any severity bucket has findings.
+     */
+    public boolean hasSeverityFindings() {
+        return critical > 0 || high > 0 || medium > 0 || low > 0;
+    }
+
+    /**
+     * Whether the gate is risk based, i.e. any risk bucket has findings.
+     */
+    public boolean hasRiskFindings() {
+        return veryPoor > 0 || poor > 0 || fair > 0 || good > 0;
+    }
+
+    /**
+     * Reason given by ArmorCode for a failure, or null if none was given.
+     */
+    public String getFailureReasonText() {
+        return failureReasonText;
+    }
+
+    /**
+     * Link to the findings in ArmorCode ({@code detailsLink}, else {@code link}), or null if none was given.
+     */
+    public String getDetailsLink() {
+        return detailsLink;
+    }
+
+    /**
+     * Poll interval requested by ArmorCode, or 0 if none.
+     */
+    public long getNextPollSeconds() {
+        return nextPollSeconds;
+    }
+
+    /**
+     * Whether ArmorCode answered that nothing changed since the validator sent with the request.
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Entity tag to send as {@code If-None-Match} on the next poll, or null if ArmorCode gave none.
+     */
+    public String getValidator() {
+        return validator;
+    }
+
+    /**
+     * Serializes the fields back to a response body, e.g. for the verdict cache.
+     */
+    public String toJson() {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            if (status != null) {
+                json.writeStringField("status", status);
+            }
+            json.writeObjectFieldStart("severity");
+            json.writeNumberField("Critical", critical);
+            json.writeNumberField("High", high);
+            json.writeNumberField("Medium", medium);
+            json.writeNumberField("Low", low);
+            json.writeEndObject();
+            json.writeObjectFieldStart("otherProperties");
+            json.writeNumberField("VERY_POOR", veryPoor);
+            json.writeNumberField("POOR", poor);
+            json.writeNumberField("FAIR", fair);
+            json.writeNumberField("GOOD", good);
+            json.writeEndObject();
+            if (failureReasonText != null) {
+                json.writeStringField("failureReasonText", failureReasonText);
+            }
+            if (detailsLink != null) {
+                json.writeStringField("detailsLink", detailsLink);
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            // Writing to a StringWriter does not fail
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package io.jenkins.plugins.armorcode.gate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded, least-recently-used cache of PASS responses keyed by gate tuple and SCM revision.
+ * Re-running a gate for a revision that already passed (replays, restarted stages, promotion jobs)
+ * is answered locally until the entry expires. Only PASS responses are stored, so a cached entry can
+ * never block a build.
+ */
+public final class GateVerdictCache {
+    private static final GateVerdictCache INSTANCE = new GateVerdictCache();
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static final class Entry {
+        private final String response;
+        private final long expiresAt;
+
+        Entry(String response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    public static GateVerdictCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached response for the key, or null if there is none or it has expired.
+     */
+    public synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.response;
+    }
+
+    /**
+     * Stores a PASS response, evicting the least recently used entries beyond maxEntries.
+     */
+    public synchronized void put(String key, String response, long ttlMillis, int maxEntries) {
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            return;
+        }
+        entries.put(key, new Entry(response, System.currentTimeMillis() + ttlMillis));
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Number of live entries; expired entries are dropped first.
+     */
+    public synchronized int size() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        return entries.size();
+    }
+
+    /**
+     * Removes every entry and returns how many there were.
+     */
+    public synchronized int clear() {
+        int size = entries.size();
+        entries.clear();
+        return size;
+    }
+}
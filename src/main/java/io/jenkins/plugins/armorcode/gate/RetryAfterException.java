@@ -0,0 +1,19 @@
+package io.jenkins.plugins.armorcode.gate;
+
+/**
+ * A failed gate request for which ArmorCode asked to be retried later, e.g. a 429 or 503 with {@code Retry-After}.
+ */
+public class RetryAfterException extends GateHttpException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public RetryAfterException(String message, int statusCode, long retryAfterSeconds) {
+        super(message, statusCode);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
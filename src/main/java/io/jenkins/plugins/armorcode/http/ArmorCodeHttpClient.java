@@ -0,0 +1,125 @@
+package io.jenkins.plugins.armorcode.http;
+
+import hudson.ProxyConfiguration;
+import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Plugin-wide HTTP client shared by gate polls, discovery batches and the connection test.
+ * A single {@link HttpClient} keeps connections alive between requests, negotiates HTTP/2 where the
+ * server supports it (multiplexing concurrent polls over one connection) and reuses TLS sessions,
+ * so repeated polls skip the DNS, TCP and TLS handshakes. The number of exchanges in flight is capped with
+ * a semaphore rather than through the JDK's {@code jdk.httpclient.*} system properties, which would change
+ * every HTTP client in the JVM; idle connections are closed after the JDK's default keep-alive timeout.
+ */
+public final class ArmorCodeHttpClient {
+    private static final Logger LOGGER = Logger.getLogger(ArmorCodeHttpClient.class.getName());
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 32;
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    // Applies to requests that do not set a timeout of their own
+    private static final Duration DEFAULT_TIMEOUT =
+            Duration.ofSeconds(ArmorCodeGlobalConfig.DEFAULT_REQUEST_TIMEOUT_SECONDS);
+
+    private static volatile ArmorCodeHttpClient instance;
+
+    // Built once; only the cap changes with the configuration, so no client is ever left behind
+    private final HttpClient client;
+    private volatile Cap cap;
+
+    /**
+     * A limit on concurrent exchanges. A request releases the cap it acquired, even after it was replaced.
+     */
+    private static final class Cap {
+        private final int maxConcurrentRequests;
+        private final Semaphore slots;
+
+        Cap(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            this.slots = new Semaphore(maxConcurrentRequests, true);
+        }
+    }
+
+    private ArmorCodeHttpClient() {
+        this.client = ProxyConfiguration.newHttpClientBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Returns the shared client.
+     */
+    public static ArmorCodeHttpClient get() {
+        ArmorCodeHttpClient current = instance;
+        if (current == null) {
+            synchronized (ArmorCodeHttpClient.class) {
+                current = instance;
+                if (current == null) {
+                    current = new ArmorCodeHttpClient();
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The cap for the maximum in the global configuration, replaced when that changes.
+     */
+    private Cap cap() {
+        ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
+        int max = config != null ? config.getHttpMaxConcurrentRequests() : DEFAULT_MAX_CONCURRENT_REQUESTS;
+        Cap current = cap;
+        if (current == null || current.maxConcurrentRequests != max) {
+            synchronized (this) {
+                current = cap;
+                if (current == null || current.maxConcurrentRequests != max) {
+                    current = new Cap(max);
+                    cap = current;
+                    LOGGER.fine("[ArmorCode] HTTP client allows " + max + " concurrent requests");
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Sends a request once fewer than the configured maximum are in flight. Waiting for a slot counts
+     * against the request's timeout, so a stalled endpoint holding every slot cannot block callers for
+     * longer than that. The body handler should consume the whole body, since the slot is released as soon
+     * as this method returns.
+     *
+     * @throws HttpTimeoutException if no slot became free, or the response did not arrive, within the timeout
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        Duration timeout = request.timeout().orElse(DEFAULT_TIMEOUT);
+        long started = System.nanoTime();
+        Cap current = cap();
+        if (!current.slots.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new HttpTimeoutException("Timed out after " + timeout.toSeconds() + "s waiting for one of "
+                    + current.maxConcurrentRequests + " concurrent ArmorCode requests to finish");
+        }
+        try {
+            Duration remaining = timeout.minusNanos(System.nanoTime() - started);
+            HttpRequest bounded = HttpRequest.newBuilder(request, (name, value) -> true)
+                    .timeout(remaining.compareTo(Duration.ofMillis(1)) > 0 ? remaining : Duration.ofMillis(1))
+                    .build();
+            return client.send(bounded, bodyHandler);
+        } finally {
+            current.slots.release();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.jenkins.plugins.armorcode.http;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * A response body read up to a byte limit. Anything past the limit is discarded and the rest of the
+ * transfer is cancelled, so an oversized body (e.g. an error page from a misbehaving proxy) never ends
+ * up fully in memory or in a build log.
+ */
+public final class LimitedBody {
+    private final byte[] bytes;
+    private final boolean truncated;
+
+    private LimitedBody(byte[] bytes, boolean truncated) {
+        this.bytes = bytes;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Body handler that keeps at most maxBytes of the body.
+     */
+    public static HttpResponse.BodyHandler<LimitedBody> handler(int maxBytes) {
+        return responseInfo -> new Subscriber(maxBytes);
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Whether the body was longer than the limit.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * The body as UTF-8 text, marked if it was cut off.
+     */
+    public String asText() {
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return truncated ? text + "... (truncated)" : text;
+    }
+
+    private static final class Subscriber implements HttpResponse.BodySubscriber<LimitedBody> {
+        private final int maxBytes;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final CompletableFuture<LimitedBody> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        Subscriber(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (result.isDone()) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                int room = maxBytes - buffer.size();
+                int length = Math.min(item.remaining(), room);
+                byte[] chunk = new byte[length];
+                item.get(chunk);
+                buffer.write(chunk, 0, length);
+                if (item.hasRemaining()) {
+                    // Over the limit: keep what we have and stop the transfer
+                    result.complete(new LimitedBody(buffer.toByteArray(), true));
+                    subscription.cancel();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(new LimitedBody(buffer.toByteArray(), false));
+        }
+
+        @Override
+        public CompletionStage<LimitedBody> getBody() {
+            return result;
+        }
+    }
+}
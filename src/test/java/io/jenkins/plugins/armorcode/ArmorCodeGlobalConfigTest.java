@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import hudson.util.FormValidation;
 import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
+import io.jenkins.plugins.armorcode.http.ArmorCodeHttpClient;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
@@ -60,4 +61,32 @@ public class ArmorCodeGlobalConfigTest {
         FormValidation result3 = config.doCheckBaseUrl("https://app.armorcode.com");
         assertEquals(FormValidation.Kind.OK, result3.kind);
     }
+
+    /**
+     * Test that the HTTP request cap falls back to its default for invalid values.
+     */
+    @Test
+    public void testHttpClientSettings() {
+        ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
+
+        config.setHttpMaxConcurrentRequests(8);
+        assertEquals(8, config.getHttpMaxConcurrentRequests());
+
+        config.setHttpMaxConcurrentRequests(0);
+        assertEquals(ArmorCodeHttpClient.DEFAULT_MAX_CONCURRENT_REQUESTS, config.getHttpMaxConcurrentRequests());
+    }
+
+    /**
+     * Test that the discovery log budget is capped, since it is read into memory.
+     */
+    @Test
+    public void testDiscoveryLogScanCapped() {
+        ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
+
+        config.setDiscoveryLogScanKb(Integer.MAX_VALUE);
+        assertEquals(ArmorCodeGlobalConfig.MAX_DISCOVERY_LOG_SCAN_KB, config.getDiscoveryLogScanKb());
+
+        config.setDiscoveryLogScanKb(0);
+        assertEquals(ArmorCodeGlobalConfig.DEFAULT_DISCOVERY_LOG_SCAN_KB, config.getDiscoveryLogScanKb());
+    }
 }
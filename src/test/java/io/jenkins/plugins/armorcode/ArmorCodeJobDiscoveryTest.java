@@ -2,15 +2,21 @@ package io.jenkins.plugins.armorcode;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
 import hudson.model.TaskListener;
 import hudson.util.Secret;
 import hudson.util.StreamTaskListener;
 import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
+import io.jenkins.plugins.armorcode.gate.GateCircuitBreaker;
+import io.jenkins.plugins.armorcode.gate.GateRequestCoalescer;
+import io.jenkins.plugins.armorcode.gate.GateVerdictCache;
+import java.io.File;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -18,6 +24,7 @@ import net.sf.json.JSONObject;
 import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -33,6 +40,13 @@ public class ArmorCodeJobDiscoveryTest {
     private Method isUsingArmorCodePluginMethod;
     private Method collectJobsDataMethod;
 
+    @After
+    public void tearDown() {
+        GateCircuitBreaker.resetAll();
+        GateVerdictCache.get().clear();
+        GateRequestCoalescer.get().clear();
+    }
+
     @Before
     public void setUp() throws Exception {
         discovery = new ArmorCodeJobDiscovery();
@@ -184,6 +198,102 @@ public class ArmorCodeJobDiscoveryTest {
         assertTrue("Job 'prod-job-2' should be in the collected data", foundJob4);
     }
 
+    @Test
+    public void testChangedJobsTracked() throws Exception {
+        ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
+        config.setMonitorBuilds(true);
+        config.setIncrementalDiscovery(true);
+        ArmorCodeJobIndex.drain();
+
+        FreeStyleProject created = jenkins.createFreeStyleProject("changed-job");
+        FreeStyleProject deleted = jenkins.createFreeStyleProject("deleted-job");
+        deleted.delete();
+        assertEquals(List.of("changed-job"), ArmorCodeJobIndex.drain());
+
+        jenkins.buildAndAssertSuccess(created);
+        assertEquals("A completed build marks its job", List.of("changed-job"), ArmorCodeJobIndex.drain());
+
+        created.renameTo("renamed-job");
+        assertEquals(List.of("renamed-job"), ArmorCodeJobIndex.drain());
+
+        Method collectChanged = ArmorCodeJobDiscovery.class.getDeclaredMethod(
+                "collectChangedJobsData", ArmorCodeGlobalConfig.class, List.class, TaskListener.class);
+        collectChanged.setAccessible(true);
+        TaskListener listener = new StreamTaskListener(System.out, null);
+        List<JSONObject> jobsData = (List<JSONObject>)
+                collectChanged.invoke(discovery, config, List.of("renamed-job", "deleted-job"), listener);
+
+        assertEquals("Only jobs that still exist are sent", 1, jobsData.size());
+        assertEquals("renamed-job", jobsData.get(0).getString("jobName"));
+        assertEquals("1", jobsData.get(0).getString("buildNumber"));
+    }
+
+    @Test
+    public void testDetectionVerdictCached() throws Exception {
+        FreeStyleProject job = jenkins.createFreeStyleProject("cached-job");
+        job.getBuildersList().add(new ArmorCodeReleaseGateBuilder("1", "1", "1"));
+
+        TaskListener listener = new StreamTaskListener(System.out, null);
+        collectJobsDataMethod.invoke(discovery, ArmorCodeGlobalConfig.get(), listener);
+        assertTrue(new File(jenkins.jenkins.getRootDir(), ArmorCodeDetectionCache.FILE_NAME).exists());
+
+        // A fresh cache read back from JENKINS_HOME, as after a restart
+        ArmorCodeDetectionCache cache = ArmorCodeDetectionCache.load();
+        assertEquals(Boolean.TRUE, cache.lookup(job));
+
+        // Changing the configuration invalidates the verdict
+        job.getBuildersList().clear();
+        job.setDescription("no longer gated");
+        assertNull(cache.lookup(job));
+    }
+
+    @Test
+    public void testGateRecordedOnBuild() throws Exception {
+        StringCredentialsImpl credential = new StringCredentialsImpl(
+                CredentialsScope.GLOBAL,
+                "ARMORCODE_TOKEN",
+                "dummy token credential",
+                Secret.fromString("my-secret-token"));
+        SystemCredentialsProvider.getInstance().getCredentials().add(credential);
+        SystemCredentialsProvider.getInstance().save();
+
+        FreeStyleProject job = jenkins.createFreeStyleProject("recorded-job");
+        ArmorCodeReleaseGateBuilderTest.MockArmorCodeReleaseGateBuilder builder =
+                new ArmorCodeReleaseGateBuilderTest.MockArmorCodeReleaseGateBuilder("1", "2", "Production");
+        builder.setMockResponse("{\"status\":\"SUCCESS\"}");
+        job.getBuildersList().add(builder);
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(job);
+
+        ArmorCodeGateAction action = build.getAction(ArmorCodeGateAction.class);
+        assertEquals(1, action.getGates().size());
+        assertEquals("2", action.getGates().get(0).getSubProducts());
+        assertEquals("PASS", action.getGates().get(0).getResult());
+
+        // Still detected from the recorded gate once the builder is gone
+        job.getBuildersList().clear();
+        assertTrue((boolean) isUsingArmorCodePluginMethod.invoke(discovery, job));
+    }
+
+    @Test
+    public void testLogProbeReadsOnlyBothEnds() throws Exception {
+        String padding = "for i in $(seq 1 200); do echo padding-line-$i-xxxxxxxxxxxxxxxx; done\n";
+
+        FreeStyleProject atEnd = jenkins.createFreeStyleProject("marker-at-end");
+        atEnd.getBuildersList().add(new hudson.tasks.Shell(padding + "echo '=== ArmorCode Release Gate ==='"));
+        FreeStyleBuild endBuild = jenkins.buildAndAssertSuccess(atEnd);
+
+        FreeStyleProject inMiddle = jenkins.createFreeStyleProject("marker-in-middle");
+        inMiddle.getBuildersList()
+                .add(new hudson.tasks.Shell(padding + "echo '=== ArmorCode Release Gate ==='\n" + padding));
+        FreeStyleBuild middleBuild = jenkins.buildAndAssertSuccess(inMiddle);
+
+        assertTrue(ArmorCodeLogProbe.GATE_OUTPUT.matches(endBuild, 1024));
+        assertFalse(
+                "Only the first and last 512 bytes are read",
+                ArmorCodeLogProbe.GATE_OUTPUT.matches(middleBuild, 1024));
+        assertTrue("The whole log fits the budget", ArmorCodeLogProbe.GATE_OUTPUT.matches(middleBuild, 1024 * 1024));
+    }
+
     @Test
     public void testGetRecurrencePeriod() throws Exception {
         ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
@@ -0,0 +1,127 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import hudson.tasks.Shell;
+import hudson.util.Secret;
+import io.jenkins.plugins.armorcode.config.ArmorCodeGlobalConfig;
+import io.jenkins.plugins.armorcode.gate.GateCircuitBreaker;
+import io.jenkins.plugins.armorcode.gate.GateRequestCoalescer;
+import io.jenkins.plugins.armorcode.gate.GateVerdictCache;
+import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class ArmorCodeQueueGateTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Before
+    public void setUp() throws Exception {
+        StringCredentialsImpl credential = new StringCredentialsImpl(
+                CredentialsScope.GLOBAL,
+                "ARMORCODE_TOKEN",
+                "dummy token credential",
+                Secret.fromString("my-secret-token"));
+        SystemCredentialsProvider.getInstance().getCredentials().add(credential);
+        SystemCredentialsProvider.getInstance().save();
+
+        ArmorCodeGlobalConfig config = ArmorCodeGlobalConfig.get();
+        config.setCircuitFailureThreshold(1);
+        config.setCircuitOpenSeconds(3600);
+    }
+
+    @After
+    public void tearDown() {
+        GateCircuitBreaker.resetAll();
+        GateVerdictCache.get().clear();
+        GateRequestCoalescer.get().clear();
+    }
+
+    /**
+     * Adds the property to the project and opens its endpoint's circuit breaker, so no request reaches ArmorCode.
+     */
+    private static void addGateWithOpenCircuit(FreeStyleProject project, ArmorCodeQueueGateJobProperty property)
+            throws Exception {
+        project.addProperty(property);
+        GateCircuitBreaker.get(property.toBuilder().resolveApiUrl()).recordFailure(1);
+    }
+
+    /**
+     * A fail fallback fails the build before any of its steps run, with the reason in its log.
+     */
+    @Test
+    public void testFailFallbackFailsBuildBeforeItsSteps() throws Exception {
+        ArmorCodeGlobalConfig.get().setCircuitFallback("fail");
+        FreeStyleProject project = jenkins.createFreeStyleProject("queue-gate-fail");
+        addGateWithOpenCircuit(project, new ArmorCodeQueueGateJobProperty("123", "456", "Production"));
+        project.getBuildersList().add(new Shell("echo should-not-run"));
+
+        FreeStyleBuild build = jenkins.buildAndAssertStatus(Result.FAILURE, project);
+
+        jenkins.assertLogContains(
+                "ArmorCode release gate failed: ArmorCode is unavailable (circuit breaker open)", build);
+        jenkins.assertLogNotContains("should-not-run", build);
+        assertTrue(jenkins.jenkins.getQueue().isEmpty());
+    }
+
+    /**
+     * A Pipeline rejected in the queue runs none of its steps.
+     */
+    @Test
+    public void testFailFallbackFailsPipelineBeforeItsSteps() throws Exception {
+        ArmorCodeGlobalConfig.get().setCircuitFallback("fail");
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "queue-gate-fail-pipeline");
+        job.setDefinition(new CpsFlowDefinition("echo 'deploying'", true));
+        ArmorCodeQueueGateJobProperty property = new ArmorCodeQueueGateJobProperty("123", "456", "Production");
+        job.addProperty(property);
+        GateCircuitBreaker.get(property.toBuilder().resolveApiUrl()).recordFailure(1);
+
+        WorkflowRun run = jenkins.buildAndAssertStatus(Result.FAILURE, job);
+
+        jenkins.assertLogContains("Failing the build before any of its steps run", run);
+        jenkins.assertLogNotContains("deploying", run);
+    }
+
+    @Test
+    public void testWarnFallbackStartsBuild() throws Exception {
+        ArmorCodeGlobalConfig.get().setCircuitFallback("warn");
+        FreeStyleProject project = jenkins.createFreeStyleProject("queue-gate-warn");
+        addGateWithOpenCircuit(project, new ArmorCodeQueueGateJobProperty("123", "456", "Production"));
+
+        FreeStyleBuild build = project.scheduleBuild2(0).get();
+
+        assertEquals(Result.UNSTABLE, build.getResult());
+        assertTrue(build.getLog().contains("circuit breaker open"));
+    }
+
+    /**
+     * A fail fallback follows the gate's mode, so a gate in warn mode lets the build run as UNSTABLE.
+     */
+    @Test
+    public void testFailFallbackRespectsWarnMode() throws Exception {
+        ArmorCodeGlobalConfig.get().setCircuitFallback("fail");
+        FreeStyleProject project = jenkins.createFreeStyleProject("queue-gate-fail-warn-mode");
+        ArmorCodeQueueGateJobProperty property = new ArmorCodeQueueGateJobProperty("123", "456", "Production");
+        property.setMode("warn");
+        addGateWithOpenCircuit(project, property);
+
+        FreeStyleBuild build = project.scheduleBuild2(0).get();
+
+        assertEquals(Result.UNSTABLE, build.getResult());
+        assertTrue(build.getLog().contains("circuit breaker open"));
+    }
+}
@@ -1,6 +1,10 @@
 package io.jenkins.plugins.armorcode;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.cloudbees.plugins.credentials.CredentialsScope;
@@ -11,7 +15,15 @@ import hudson.model.FreeStyleProject;
 import hudson.model.Result;
 import hudson.model.TaskListener;
 import hudson.util.Secret;
+import io.jenkins.plugins.armorcode.gate.GateCircuitBreaker;
+import io.jenkins.plugins.armorcode.gate.GatePayload;
+import io.jenkins.plugins.armorcode.gate.GateRequestCoalescer;
+import io.jenkins.plugins.armorcode.gate.GateResponse;
+import io.jenkins.plugins.armorcode.gate.GateVerdictCache;
+import java.time.Duration;
+import java.util.List;
 import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
@@ -21,6 +33,13 @@ public class ArmorCodeReleaseGateBuilderTest {
     @Rule
     public JenkinsRule jenkins = new JenkinsRule();
 
+    @After
+    public void tearDown() {
+        GateCircuitBreaker.resetAll();
+        GateVerdictCache.get().clear();
+        GateRequestCoalescer.get().clear();
+    }
+
     public static class MockArmorCodeReleaseGateBuilder extends ArmorCodeReleaseGateBuilder {
 
         private String mockResponse;
@@ -34,20 +53,13 @@ public class ArmorCodeReleaseGateBuilderTest {
         }
 
         @Override
-        protected String postArmorCodeRequest(
-                TaskListener listener,
-                String token,
-                String buildNumber,
-                String jobName,
-                int current,
-                int end,
-                String apiUrl,
-                String jobUrl)
+        protected GateResponse postArmorCodeRequest(
+                TaskListener listener, String token, GatePayload payload, int current, String apiUrl, Duration timeout)
                 throws Exception {
             if (mockResponse != null) {
-                return mockResponse;
+                return GateResponse.parse(mockResponse);
             }
-            return super.postArmorCodeRequest(listener, token, buildNumber, jobName, current, end, apiUrl, jobUrl);
+            return super.postArmorCodeRequest(listener, token, payload, current, apiUrl, timeout);
         }
 
         @Extension
@@ -186,6 +198,34 @@ public class ArmorCodeReleaseGateBuilderTest {
         assertTrue(log.contains("ArmorCode check did not pass after 2 retries (last status was HOLD)."));
     }
 
+    @Test
+    public void testTimeoutOnHold() throws Exception {
+        StringCredentialsImpl credential = new StringCredentialsImpl(
+                CredentialsScope.GLOBAL,
+                "ARMORCODE_TOKEN",
+                "dummy token credential",
+                Secret.fromString("my-secret-token"));
+        SystemCredentialsProvider.getInstance().getCredentials().add(credential);
+        SystemCredentialsProvider.getInstance().save();
+
+        FreeStyleProject project = jenkins.createFreeStyleProject("test-timeout");
+
+        // Plenty of retries left, but the time budget runs out first
+        MockArmorCodeReleaseGateBuilder builder = new MockArmorCodeReleaseGateBuilder("123", "456", "Production");
+        builder.setMode("block");
+        builder.setMaxRetries(100);
+        builder.setRetryDelay(1);
+        builder.setMaxRetryDelay(1);
+        builder.setTimeout(2);
+        builder.setMockResponse("{\"status\":\"HOLD\"}");
+        project.getBuildersList().add(builder);
+
+        FreeStyleBuild build = project.scheduleBuild2(0).get();
+
+        assertEquals("Build should fail once the timeout is reached", Result.FAILURE, build.getResult());
+        assertTrue(build.getLog().contains("ArmorCode check timed out before a verdict was returned"));
+    }
+
     @Test
     public void testInvalidResponseFailure() throws Exception {
         // Create a credential
@@ -216,4 +256,83 @@ public class ArmorCodeReleaseGateBuilderTest {
         assertTrue(log.contains("ArmorCode request failed:"));
         assertTrue(log.contains("ArmorCode request error after maximum retries."));
     }
+
+    /**
+     * A reply without a status is retried like an unreadable one instead of passing the gate.
+     */
+    @Test
+    public void testMissingStatusFails() throws Exception {
+        StringCredentialsImpl credential = new StringCredentialsImpl(
+                CredentialsScope.GLOBAL,
+                "ARMORCODE_TOKEN",
+                "dummy token credential",
+                Secret.fromString("my-secret-token"));
+        SystemCredentialsProvider.getInstance().getCredentials().add(credential);
+        SystemCredentialsProvider.getInstance().save();
+
+        FreeStyleProject project = jenkins.createFreeStyleProject("test-missing-status");
+        MockArmorCodeReleaseGateBuilder builder = new MockArmorCodeReleaseGateBuilder("123", "456", "Production");
+        builder.setMaxRetries(2);
+        builder.setRetryDelay(1);
+        builder.setMockResponse("{\"unchanged\":true}");
+        project.getBuildersList().add(builder);
+
+        FreeStyleBuild build = project.scheduleBuild2(0).get();
+
+        assertEquals("Build should fail without a status", Result.FAILURE, build.getResult());
+        String log = build.getLog();
+        assertTrue(log.contains("ArmorCode request failed: ArmorCode response has no status"));
+        assertTrue(log.contains("ArmorCode request error after maximum retries."));
+    }
+
+    /**
+     * Sub-products given as text or as a list, in any order and with duplicates, identify the same gate.
+     */
+    @Test
+    public void testSubProductsNormalized() throws Exception {
+        ArmorCodeReleaseGateBuilder fromText =
+                new ArmorCodeReleaseGateBuilder("123", " web\r\napi\n\nweb ", "Production");
+        ArmorCodeReleaseGateBuilder fromList =
+                new ArmorCodeReleaseGateBuilder("123", List.of("web", "api"), "Production");
+
+        assertEquals(
+                fromList.coalescingKey("token", "1", "job", "https://example.com"),
+                fromText.coalescingKey("token", "1", "job", "https://example.com"));
+        assertTrue(fromText.formatDetailedErrorMessage("1", "job", GateResponse.parse("{}"))
+                .contains("Sub Group: api, web\n"));
+    }
+
+    /**
+     * Concurrent builds of one job share the builder, so each check keeps its own request body.
+     */
+    @Test
+    public void testPayloadIsKeptPerBuild() {
+        ArmorCodeReleaseGateBuilder builder = new ArmorCodeReleaseGateBuilder("123", List.of("456"), "Production");
+        GatePayload first = builder.payloadFor(null, "1", "job", "url");
+        GatePayload second = builder.payloadFor(null, "2", "job", "url");
+
+        assertSame(first, builder.payloadFor(first, "1", "job", "url"));
+        assertNotSame(first, builder.payloadFor(first, "2", "job", "url"));
+        assertEquals("1", first.getBuildNumber());
+        assertEquals("2", second.getBuildNumber());
+    }
+
+    /**
+     * A manual RELEASE lets this build through but is not reused for later builds of the same revision.
+     */
+    @Test
+    public void testReleaseVerdictIsNotCached() throws Exception {
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(jenkins.createFreeStyleProject("test-release-cache"));
+        ArmorCodeReleaseGateBuilder builder = new ArmorCodeReleaseGateBuilder("123", List.of("456"), "Production");
+
+        assertEquals(
+                ArmorCodeReleaseGateBuilder.PollOutcome.PASSED,
+                builder.applyGateStatus(
+                        build, TaskListener.NULL, GateResponse.parse("{\"status\":\"RELEASE\"}"), "released"));
+        assertNull("A manual release must not be cached", GateVerdictCache.get().get("released"));
+
+        builder.applyGateStatus(
+                build, TaskListener.NULL, GateResponse.parse("{\"status\":\"SUCCESS\"}"), "passed");
+        assertNotNull(GateVerdictCache.get().get("passed"));
+    }
 }
@@ -0,0 +1,188 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertTrue;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.sun.net.httpserver.HttpServer;
+import hudson.util.Secret;
+import io.jenkins.plugins.armorcode.gate.GateCircuitBreaker;
+import io.jenkins.plugins.armorcode.gate.GateRequestCoalescer;
+import io.jenkins.plugins.armorcode.gate.GateVerdictCache;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsSessionRule;
+
+public class ArmorCodeReleaseGateStepRestartTest {
+
+    @Rule
+    public JenkinsSessionRule sessions = new JenkinsSessionRule();
+
+    private HttpServer server;
+    private volatile String response = "{\"status\":\"HOLD\"}";
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        // Stand-in for ArmorCode that outlives the Jenkins restart
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/client/build", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            requestCount.incrementAndGet();
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        GateCircuitBreaker.resetAll();
+        GateVerdictCache.get().clear();
+        GateRequestCoalescer.get().clear();
+    }
+
+    /**
+     * A gate on HOLD during a restart resumes polling with its attempt count instead of failing the build.
+     */
+    @Test
+    public void testResumesAfterRestart() throws Throwable {
+        int port = server.getAddress().getPort();
+        sessions.then(j -> {
+            SystemCredentialsProvider.getInstance()
+                    .getCredentials()
+                    .add(new StringCredentialsImpl(
+                            CredentialsScope.GLOBAL, "ARMORCODE_TOKEN", "token", Secret.fromString("token")));
+            SystemCredentialsProvider.getInstance().save();
+
+            WorkflowJob job = j.createProject(WorkflowJob.class, "restarted-gate");
+            job.setDefinition(new CpsFlowDefinition(
+                    "armorcodeReleaseGate(product: '123', subProducts: ['456'], env: 'Production', maxRetries: 20,"
+                            + " retryDelay: 1, targetUrl: 'http://localhost:" + port + "')",
+                    true));
+            WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+            j.waitForMessage("SLA is on HOLD", run);
+        });
+        int requestsBeforeRestart = requestCount.get();
+        response = "{\"status\":\"SUCCESS\"}";
+        sessions.then(j -> {
+            WorkflowRun run = j.jenkins.getItemByFullName("restarted-gate", WorkflowJob.class).getBuildByNumber(1);
+            j.assertBuildStatusSuccess(j.waitForCompletion(run));
+            j.assertLogContains("Resuming ArmorCode release gate after a Jenkins restart (", run);
+            j.assertLogContains("ArmorCode check passed! Proceeding...", run);
+        });
+        assertTrue("Polling should continue after the restart", requestCount.get() > requestsBeforeRestart);
+    }
+
+    /**
+     * Gates of a batch on HOLD during a restart resume, and the step still reports every gate.
+     */
+    @Test
+    public void testBatchResumesAfterRestart() throws Throwable {
+        int port = server.getAddress().getPort();
+        sessions.then(j -> {
+            SystemCredentialsProvider.getInstance()
+                    .getCredentials()
+                    .add(new StringCredentialsImpl(
+                            CredentialsScope.GLOBAL, "ARMORCODE_TOKEN", "token", Secret.fromString("token")));
+            SystemCredentialsProvider.getInstance().save();
+
+            WorkflowJob job = j.createProject(WorkflowJob.class, "restarted-batch");
+            job.setDefinition(new CpsFlowDefinition(
+                    "def verdict = armorcodeReleaseGates(gates: [[product: '1', subProducts: ['a'], env: 'Production'],"
+                            + " [product: '2', subProducts: ['b'], env: 'Production']], maxRetries: 20,"
+                            + " retryDelay: 1, targetUrl: 'http://localhost:" + port + "')\n"
+                            + "echo \"overall=${verdict.result}\"",
+                    true));
+            WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+            j.waitForMessage("[2/b/Production] [INFO] SLA is on HOLD", run);
+        });
+        response = "{\"status\":\"SUCCESS\"}";
+        sessions.then(j -> {
+            WorkflowRun run = j.jenkins.getItemByFullName("restarted-batch", WorkflowJob.class).getBuildByNumber(1);
+            j.assertBuildStatusSuccess(j.waitForCompletion(run));
+            j.assertLogContains("ArmorCode release gates after a Jenkins restart", run);
+            j.assertLogContains("overall=PASS", run);
+        });
+    }
+
+    /**
+     * The block step's gate resumes after a restart and the step completes with the wrapped steps' result.
+     */
+    @Test
+    public void testBlockStepResumesAfterRestart() throws Throwable {
+        int port = server.getAddress().getPort();
+        sessions.then(j -> {
+            SystemCredentialsProvider.getInstance()
+                    .getCredentials()
+                    .add(new StringCredentialsImpl(
+                            CredentialsScope.GLOBAL, "ARMORCODE_TOKEN", "token", Secret.fromString("token")));
+            SystemCredentialsProvider.getInstance().save();
+
+            WorkflowJob job = j.createProject(WorkflowJob.class, "restarted-block");
+            job.setDefinition(new CpsFlowDefinition(
+                    "def packaged = withArmorCodeReleaseGate(product: '123', subProducts: ['456'], env: 'Production',"
+                            + " maxRetries: 20, retryDelay: 1, targetUrl: 'http://localhost:" + port + "') {\n"
+                            + "  'packaged'\n"
+                            + "}\n"
+                            + "echo \"body=${packaged}\"",
+                    true));
+            WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+            j.waitForMessage("Waiting for the ArmorCode release gate verdict", run);
+        });
+        response = "{\"status\":\"SUCCESS\"}";
+        sessions.then(j -> {
+            WorkflowRun run = j.jenkins.getItemByFullName("restarted-block", WorkflowJob.class).getBuildByNumber(1);
+            j.assertBuildStatusSuccess(j.waitForCompletion(run));
+            j.assertLogContains("Resuming ArmorCode release gate after a Jenkins restart (", run);
+            j.assertLogContains("body=packaged", run);
+        });
+    }
+
+    /**
+     * A gate started in the background keeps polling after a restart, and the await finds it again.
+     */
+    @Test
+    public void testBackgroundGateResumesAfterRestart() throws Throwable {
+        int port = server.getAddress().getPort();
+        sessions.then(j -> {
+            SystemCredentialsProvider.getInstance()
+                    .getCredentials()
+                    .add(new StringCredentialsImpl(
+                            CredentialsScope.GLOBAL, "ARMORCODE_TOKEN", "token", Secret.fromString("token")));
+            SystemCredentialsProvider.getInstance().save();
+
+            WorkflowJob job = j.createProject(WorkflowJob.class, "restarted-background");
+            job.setDefinition(new CpsFlowDefinition(
+                    "def gate = armorcodeReleaseGateStart(product: '123', subProducts: ['456'], env: 'Production',"
+                            + " maxRetries: 20, retryDelay: 1, targetUrl: 'http://localhost:" + port + "')\n"
+                            + "sleep 10\n"
+                            + "echo \"verdict=${armorcodeReleaseGateAwait(handle: gate)}\"",
+                    true));
+            WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+            j.waitForMessage("SLA is on HOLD", run);
+        });
+        response = "{\"status\":\"SUCCESS\"}";
+        sessions.then(j -> {
+            WorkflowRun run =
+                    j.jenkins.getItemByFullName("restarted-background", WorkflowJob.class).getBuildByNumber(1);
+            j.assertBuildStatusSuccess(j.waitForCompletion(run));
+            j.assertLogContains("Resuming ArmorCode release gate after a Jenkins restart (", run);
+            j.assertLogContains("verdict=PASS", run);
+        });
+    }
+}
@@ -0,0 +1,265 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.sun.net.httpserver.HttpServer;
+import hudson.model.Label;
+import hudson.model.Result;
+import hudson.util.Secret;
+import io.jenkins.plugins.armorcode.gate.GateCircuitBreaker;
+import io.jenkins.plugins.armorcode.gate.GateRequestCoalescer;
+import io.jenkins.plugins.armorcode.gate.GateVerdictCache;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class ArmorCodeReleaseGateStepTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    // Gates for this product always fail, whatever responses are queued
+    private static final String FAILING_PRODUCT = "failing";
+
+    private HttpServer server;
+    private final Deque<String> responses = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        StringCredentialsImpl credential = new StringCredentialsImpl(
+                CredentialsScope.GLOBAL, "ARMORCODE_TOKEN", "dummy token credential", Secret.fromString("token"));
+        SystemCredentialsProvider.getInstance().getCredentials().add(credential);
+        SystemCredentialsProvider.getInstance().save();
+
+        // Local stand-in for the ArmorCode build validation endpoint, replaying queued responses
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/client/build", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requestCount.incrementAndGet();
+            String body = request.contains("\"product\": \"" + FAILING_PRODUCT + "\"")
+                    ? "{\"status\":\"FAILED\"}"
+                    : responses.size() > 1 ? responses.poll() : responses.peek();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        GateCircuitBreaker.resetAll();
+        GateVerdictCache.get().clear();
+        GateRequestCoalescer.get().clear();
+    }
+
+    private WorkflowJob createGatedJob(String name, String mode) throws Exception {
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, name);
+        job.setDefinition(new CpsFlowDefinition(
+                "armorcodeReleaseGate(product: '123', subProducts: ['456'], env: 'Production', mode: '" + mode
+                        + "', maxRetries: 3, retryDelay: 1, targetUrl: 'http://localhost:"
+                        + server.getAddress().getPort() + "')",
+                true));
+        return job;
+    }
+
+    /**
+     * The step runs outside any node block and resumes once HOLD turns into a pass.
+     */
+    @Test
+    public void testHoldThenSuccess() throws Exception {
+        responses.add("{\"status\":\"HOLD\"}");
+        responses.add("{\"status\":\"SUCCESS\"}");
+
+        WorkflowRun run = jenkins.buildAndAssertSuccess(createGatedJob("step-hold-then-success", "block"));
+
+        jenkins.assertLogContains("SLA is on HOLD. Sleeping 1s...", run);
+        jenkins.assertLogContains("ArmorCode check passed! Proceeding...", run);
+        assertEquals("Should poll twice", 2, requestCount.get());
+    }
+
+    @Test
+    public void testBlockModeFailure() throws Exception {
+        responses.add("{\"status\":\"FAILED\",\"failureReasonText\":\"SLA violations\"}");
+
+        WorkflowRun run = jenkins.buildAndAssertStatus(Result.FAILURE, createGatedJob("step-block", "block"));
+
+        jenkins.assertLogContains("Reason: SLA violations", run);
+    }
+
+    @Test
+    public void testWarnModeFailure() throws Exception {
+        responses.add("{\"status\":\"FAILED\"}");
+
+        WorkflowRun run = jenkins.buildAndAssertStatus(Result.UNSTABLE, createGatedJob("step-warn", "warn"));
+
+        assertTrue(run.getLog().contains("'warn' mode is active"));
+    }
+
+    /**
+     * All gates of a batch are checked and reported, and one failing gate fails the step in block mode.
+     */
+    @Test
+    public void testBatchReportsEveryGate() throws Exception {
+        responses.add("{\"status\":\"SUCCESS\"}");
+
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "step-batch");
+        job.setDefinition(new CpsFlowDefinition(
+                "def verdict = armorcodeReleaseGates(gates: [[product: '1', subProducts: ['a'], env: 'Production'],"
+                        + " [product: '2', subProducts: ['b'], env: 'Production']], maxRetries: 1, targetUrl: '"
+                        + "http://localhost:" + server.getAddress().getPort() + "')\n"
+                        + "echo \"overall=${verdict.result} first=${verdict.gates[0].result}\"",
+                true));
+        WorkflowRun run = jenkins.buildAndAssertSuccess(job);
+        jenkins.assertLogContains("overall=PASS first=PASS", run);
+        jenkins.assertLogContains("[2/b/Production] [INFO] ArmorCode check passed! Proceeding...", run);
+
+        WorkflowJob failing = jenkins.createProject(WorkflowJob.class, "step-batch-failing");
+        failing.setDefinition(new CpsFlowDefinition(
+                "armorcodeReleaseGates(gates: [[product: '1', subProducts: ['a'], env: 'Production'],"
+                        + " [product: '" + FAILING_PRODUCT + "', subProducts: ['b'], env: 'Production']],"
+                        + " maxRetries: 1, targetUrl: 'http://localhost:" + server.getAddress().getPort() + "')",
+                true));
+        WorkflowRun failed = jenkins.buildAndAssertStatus(Result.FAILURE, failing);
+        jenkins.assertLogContains("1 passed, 1 failed", failed);
+        jenkins.assertLogContains(
+                "ArmorCode release gate failed for 1 of 2 gates: " + FAILING_PRODUCT + "/b/Production", failed);
+    }
+
+    /**
+     * A gate started early runs while the Pipeline continues and its verdict is applied at the await.
+     */
+    @Test
+    public void testStartThenAwait() throws Exception {
+        responses.add("{\"status\":\"HOLD\"}");
+        responses.add("{\"status\":\"SUCCESS\"}");
+
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "step-start-await");
+        job.setDefinition(new CpsFlowDefinition(
+                "def gate = armorcodeReleaseGateStart(product: '123', subProducts: ['456'], env: 'Production',"
+                        + " retryDelay: 1, targetUrl: 'http://localhost:" + server.getAddress().getPort() + "')\n"
+                        + "echo 'building meanwhile'\n"
+                        + "echo \"verdict=${armorcodeReleaseGateAwait(handle: gate)}\"",
+                true));
+        WorkflowRun run = jenkins.buildAndAssertSuccess(job);
+
+        jenkins.assertLogContains("building meanwhile", run);
+        jenkins.assertLogContains("verdict=PASS", run);
+        assertEquals("Should poll twice", 2, requestCount.get());
+    }
+
+    /**
+     * Aborting a build that awaits a gate on HOLD stops the step once and cancels the gate's polling.
+     */
+    @Test
+    public void testAbortWhileAwaiting() throws Exception {
+        responses.add("{\"status\":\"HOLD\"}");
+
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "step-await-abort");
+        job.setDefinition(new CpsFlowDefinition(
+                "def gate = armorcodeReleaseGateStart(product: '123', subProducts: ['456'], env: 'Production',"
+                        + " maxRetries: 50, retryDelay: 1, targetUrl: 'http://localhost:"
+                        + server.getAddress().getPort() + "')\n"
+                        + "armorcodeReleaseGateAwait(handle: gate)",
+                true));
+        WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+        jenkins.waitForMessage("SLA is on HOLD", run);
+
+        run.doStop();
+        jenkins.assertBuildStatus(Result.ABORTED, jenkins.waitForCompletion(run));
+        int requests = requestCount.get();
+        Thread.sleep(2500);
+        assertEquals("Polling should stop with the build", requests, requestCount.get());
+    }
+
+    /**
+     * A block mode failure that arrives before the await is kept and fails the await.
+     */
+    @Test
+    public void testFailureBeforeAwaitIsKept() throws Exception {
+        responses.add("{\"status\":\"FAILED\"}");
+
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "step-fail-before-await");
+        job.setDefinition(new CpsFlowDefinition(
+                "def gate = armorcodeReleaseGateStart(product: '123', subProducts: ['456'], env: 'Production',"
+                        + " targetUrl: 'http://localhost:" + server.getAddress().getPort() + "')\n"
+                        + "sleep 2\n"
+                        + "armorcodeReleaseGateAwait(handle: gate)\n"
+                        + "echo 'deploying'",
+                true));
+        WorkflowRun run = jenkins.buildAndAssertStatus(Result.FAILURE, job);
+
+        jenkins.assertLogContains("ArmorCode release gate failed: Security check did not pass", run);
+        jenkins.assertLogNotContains("deploying", run);
+    }
+
+    @Test
+    public void testAwaitUnknownHandle() throws Exception {
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "step-await-unknown");
+        job.setDefinition(new CpsFlowDefinition("armorcodeReleaseGateAwait(handle: 'nope')", true));
+
+        WorkflowRun run = jenkins.buildAndAssertStatus(Result.FAILURE, job);
+
+        jenkins.assertLogContains("Unknown ArmorCode release gate handle nope", run);
+    }
+
+    /**
+     * The wrapped steps run while the gate is checked; a block mode failure is applied once both finish.
+     */
+    @Test
+    public void testBlockStepRunsBodyAndAppliesVerdict() throws Exception {
+        responses.add("{\"status\":\"FAILED\"}");
+
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "step-block-wrapper");
+        job.setDefinition(new CpsFlowDefinition(
+                "withArmorCodeReleaseGate(product: '123', subProducts: ['456'], env: 'Production', maxRetries: 1,"
+                        + " targetUrl: 'http://localhost:" + server.getAddress().getPort() + "') {\n"
+                        + "  echo 'packaging'\n"
+                        + "}",
+                true));
+        WorkflowRun run = jenkins.buildAndAssertStatus(Result.FAILURE, job);
+
+        jenkins.assertLogContains("packaging", run);
+        jenkins.assertLogContains("ArmorCode release gate failed: Security check did not pass", run);
+    }
+
+    /**
+     * With runOnAgent the request is sent from the agent and the verdict is applied as usual.
+     */
+    @Test
+    public void testRunOnAgent() throws Exception {
+        responses.add("{\"status\":\"SUCCESS\"}");
+        jenkins.createOnlineSlave(Label.get("gate-agent"));
+
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "step-run-on-agent");
+        job.setDefinition(new CpsFlowDefinition(
+                "node('gate-agent') { armorcodeReleaseGate(product: '123', subProducts: ['456'], env: 'Production',"
+                        + " runOnAgent: true, targetUrl: 'http://localhost:" + server.getAddress().getPort()
+                        + "') }",
+                true));
+        WorkflowRun run = jenkins.buildAndAssertSuccess(job);
+
+        jenkins.assertLogContains("ArmorCode check passed! Proceeding...", run);
+        jenkins.assertLogNotContains("No workspace is available", run);
+        assertEquals(1, requestCount.get());
+    }
+}
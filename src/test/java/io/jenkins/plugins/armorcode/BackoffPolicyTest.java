@@ -0,0 +1,52 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.armorcode.gate.BackoffPolicy;
+import org.junit.Test;
+
+public class BackoffPolicyTest {
+
+    /**
+     * An interval requested by ArmorCode wins over the computed backoff.
+     */
+    @Test
+    public void testServerHintIsHonoured() {
+        BackoffPolicy policy = new BackoffPolicy(20, 300);
+        assertEquals(45, policy.delaySeconds(3, 45));
+    }
+
+    /**
+     * The first wait is the retry delay; later ones stay between it and a bound that doubles per attempt.
+     */
+    @Test
+    public void testJitteredDelayStaysWithinCap() {
+        BackoffPolicy policy = new BackoffPolicy(10, 60);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(10, policy.delaySeconds(1, 0));
+            long second = policy.delaySeconds(2, 0);
+            assertTrue("second wait was " + second, second >= 10 && second <= 20);
+            long later = policy.delaySeconds(50, 0);
+            assertTrue("later wait was " + later, later >= 10 && later <= 60);
+        }
+    }
+
+    /**
+     * A retry delay of 0 still means polling again without waiting.
+     */
+    @Test
+    public void testZeroRetryDelayDoesNotWait() {
+        BackoffPolicy policy = new BackoffPolicy(0, 300);
+        assertEquals(0, policy.delaySeconds(1, 0));
+        assertEquals(0, policy.delaySeconds(10, 0));
+    }
+
+    @Test
+    public void testParseRetryAfter() {
+        assertEquals(30, BackoffPolicy.parseRetryAfter("30"));
+        assertEquals(0, BackoffPolicy.parseRetryAfter(null));
+        assertEquals(0, BackoffPolicy.parseRetryAfter("soon"));
+        assertEquals(0, BackoffPolicy.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+    }
+}
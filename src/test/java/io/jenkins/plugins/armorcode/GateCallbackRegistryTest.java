@@ -0,0 +1,67 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.armorcode.gate.GateCallbackRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.json.JSONObject;
+import org.junit.Test;
+
+public class GateCallbackRegistryTest {
+
+    private static final String RELEASE = "{\"status\":\"RELEASE\"}";
+
+    /**
+     * A pushed verdict reaches only the gates waiting for that build, and only while registered.
+     */
+    @Test
+    public void testDeliverToRegisteredBuildOnly() {
+        GateCallbackRegistry registry = GateCallbackRegistry.get();
+        List<String> received = new ArrayList<>();
+
+        try (GateCallbackRegistry.Registration ignored =
+                registry.register("folder/job", "7", "123", List.of("456"), "Production", received::add)) {
+            assertEquals(0, registry.deliver("folder/job", "8", "123", List.of("456"), "Production", RELEASE));
+            assertEquals(1, registry.deliver("folder/job", "7", "123", List.of("456"), "Production", RELEASE));
+        }
+        assertEquals(0, registry.deliver("folder/job", "7", "123", List.of("456"), "Production", RELEASE));
+
+        assertEquals(List.of(RELEASE), received);
+    }
+
+    /**
+     * Two gates of one build wait independently: a verdict for one leaves the other on HOLD.
+     */
+    @Test
+    public void testDeliverToMatchingGateOnly() {
+        GateCallbackRegistry registry = GateCallbackRegistry.get();
+        List<String> staging = new ArrayList<>();
+        List<String> production = new ArrayList<>();
+
+        try (GateCallbackRegistry.Registration first =
+                        registry.register("job", "3", "123", List.of("456", "789"), "Staging", staging::add);
+                GateCallbackRegistry.Registration second =
+                        registry.register("job", "3", "123", List.of("456", "789"), "Production", production::add)) {
+            // Sub-products match regardless of their order
+            assertEquals(1, registry.deliver("job", "3", "123", List.of("789", "456"), "Staging", RELEASE));
+            assertEquals(0, registry.deliver("job", "3", "123", List.of("456"), "Production", RELEASE));
+        }
+
+        assertEquals(List.of(RELEASE), staging);
+        assertTrue(production.isEmpty());
+    }
+
+    @Test
+    public void testSubProductsOfCallbackBody() {
+        assertEquals(
+                List.of("456", "789"),
+                ArmorCodeCallbackAction.subProductsOf(JSONObject.fromObject("{\"subProducts\":[\"456\",\"789\"]}")));
+        assertEquals(
+                List.of("456", "789"),
+                ArmorCodeCallbackAction.subProductsOf(JSONObject.fromObject("{\"subProducts\":\"456\\n789\"}")));
+        assertNull(ArmorCodeCallbackAction.subProductsOf(JSONObject.fromObject("{\"status\":\"RELEASE\"}")));
+    }
+}
@@ -0,0 +1,75 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.armorcode.gate.GateCircuitBreaker;
+import org.junit.After;
+import org.junit.Test;
+
+public class GateCircuitBreakerTest {
+
+    private static final String API_URL = "https://armorcode.example/client/build";
+
+    @After
+    public void resetBreaker() {
+        GateCircuitBreaker.resetAll();
+    }
+
+    /**
+     * The breaker opens after the threshold and rejects requests until the open period passes.
+     */
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        GateCircuitBreaker breaker = GateCircuitBreaker.get(API_URL);
+
+        breaker.recordFailure(3);
+        breaker.recordFailure(3);
+        assertEquals(GateCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure(3);
+        assertEquals(GateCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(60_000));
+    }
+
+    /**
+     * After the open period exactly one probe is let through; its success closes the breaker.
+     */
+    @Test
+    public void testHalfOpenAllowsSingleProbe() {
+        GateCircuitBreaker breaker = GateCircuitBreaker.get(API_URL);
+        breaker.recordFailure(1);
+
+        assertTrue("First caller should become the probe", breaker.allowRequest(0));
+        assertEquals(GateCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse("Only one probe at a time", breaker.allowRequest(0));
+
+        breaker.recordSuccess();
+        assertEquals(GateCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(0));
+    }
+
+    /**
+     * A failed probe opens the breaker again regardless of the threshold.
+     */
+    @Test
+    public void testFailedProbeReopens() {
+        GateCircuitBreaker breaker = GateCircuitBreaker.get(API_URL);
+        breaker.recordFailure(1);
+        assertTrue(breaker.allowRequest(0));
+
+        breaker.recordFailure(100);
+        assertEquals(GateCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * Failures against one endpoint leave the breakers of other endpoints closed.
+     */
+    @Test
+    public void testBreakersAreKeptPerEndpoint() {
+        GateCircuitBreaker.get(API_URL).recordFailure(1);
+
+        assertEquals(GateCircuitBreaker.State.OPEN, GateCircuitBreaker.get(API_URL).getState());
+        assertTrue(GateCircuitBreaker.get("https://other.example/client/build").allowRequest(60_000));
+    }
+}
@@ -0,0 +1,97 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jenkins.plugins.armorcode.gate.GateExchange;
+import io.jenkins.plugins.armorcode.gate.GateResponse;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GateExchangeTest {
+
+    private HttpServer server;
+    private final List<String> validators = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        // Stand-in that answers unchanged polls without a body, like a server supporting ETags
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/etag", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            String validator = exchange.getRequestHeaders().getFirst("If-None-Match");
+            validators.add(String.valueOf(validator));
+            if ("\"v1\"".equals(validator)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = "{\"status\":\"HOLD\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        // Stand-in that reports a version field and answers "unchanged" for it
+        server.createContext("/version", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            String validator = exchange.getRequestHeaders().getFirst("If-None-Match");
+            validators.add(String.valueOf(validator));
+            String body = "\"7\"".equals(validator) ? "{\"unchanged\":true}" : "{\"status\":\"HOLD\",\"version\":7}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private GateResponse poll(String path, GateResponse previous) throws Exception {
+        String url = "http://localhost:" + server.getAddress().getPort() + path;
+        return new GateExchange(url, "token", "{}".getBytes(StandardCharsets.UTF_8), Duration.ofSeconds(10), previous)
+                .call();
+    }
+
+    /**
+     * A repeat poll sends the ETag and a 304 reply reuses the previous response.
+     */
+    @Test
+    public void testNotModifiedReusesPreviousResponse() throws Exception {
+        GateResponse first = poll("/etag", null);
+        GateResponse second = poll("/etag", first);
+
+        assertEquals("\"v1\"", first.getValidator());
+        assertSame(first, second);
+        assertEquals(List.of("null", "\"v1\""), validators);
+    }
+
+    /**
+     * Without an ETag, a version field in the body serves as the validator.
+     */
+    @Test
+    public void testUnchangedReplyReusesPreviousResponse() throws Exception {
+        GateResponse first = poll("/version", null);
+        GateResponse second = poll("/version", first);
+
+        assertEquals("HOLD", second.getStatus());
+        assertSame(first, second);
+        assertEquals(List.of("null", "\"7\""), validators);
+        assertNull(GateResponse.parse("{\"status\":\"HOLD\"}").getValidator());
+    }
+}
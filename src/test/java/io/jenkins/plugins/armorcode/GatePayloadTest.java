@@ -0,0 +1,50 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jenkins.plugins.armorcode.gate.GatePayload;
+import java.util.List;
+import org.junit.Test;
+
+public class GatePayloadTest {
+
+    /**
+     * Job names with quotes and backslashes still produce valid JSON.
+     */
+    @Test
+    public void testEscapesJobNameAndUrl() throws Exception {
+        GatePayload payload = GatePayload.of(
+                "Prod",
+                "Shop",
+                List.of("api \"v2\"", "web"),
+                "7",
+                "team\\folder/\"quoted\" job",
+                5,
+                "https://jenkins.example.com/job/caf\u00e9/7/");
+
+        JsonNode json = new ObjectMapper().readTree(payload.forAttempt(1));
+        assertEquals("team\\folder/\"quoted\" job", json.get("jobName").asText());
+        assertEquals("https://jenkins.example.com/job/caf\u00e9/7/", json.get("jobURL").asText());
+        assertEquals("api \"v2\"", json.get("subProducts").get(0).asText());
+        assertEquals("1", json.get("current").asText());
+        assertEquals("5", json.get("end").asText());
+    }
+
+    /**
+     * Only the attempt number changes between attempts.
+     */
+    @Test
+    public void testPatchesCurrentPerAttempt() throws Exception {
+        GatePayload payload = GatePayload.of("Prod", "Shop", List.of(), "7", "job", 12, "url");
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertEquals("3", mapper.readTree(payload.forAttempt(3)).get("current").asText());
+        assertEquals("10", mapper.readTree(payload.forAttempt(10)).get("current").asText());
+        assertTrue(payload.isFor("7", "job", 12, "url"));
+        assertFalse(payload.isFor("8", "job", 12, "url"));
+    }
+}
@@ -0,0 +1,66 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+
+import io.jenkins.plugins.armorcode.gate.GateRequestCoalescer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class GateRequestCoalescerTest {
+
+    /**
+     * Concurrent callers with the same key share one request and all see its response.
+     */
+    @Test
+    public void testConcurrentCallersShareOneRequest() throws Exception {
+        GateRequestCoalescer coalescer = GateRequestCoalescer.get();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> coalescer.execute("same-gate", () -> {
+                    calls.incrementAndGet();
+                    release.await(10, TimeUnit.SECONDS);
+                    return "{\"status\":\"SUCCESS\"}";
+                })));
+            }
+            // Give every caller time to join the in-flight request before it completes
+            while (coalescer.getInFlightCount() == 0) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("{\"status\":\"SUCCESS\"}", result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals("Only one request should be sent", 1, calls.get());
+            assertEquals("Key should be released after completion", 0, coalescer.getInFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A completed request is not reused by later callers.
+     */
+    @Test
+    public void testSequentialCallersSendSeparateRequests() throws Exception {
+        GateRequestCoalescer coalescer = GateRequestCoalescer.get();
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.execute("sequential-gate", () -> "first-" + calls.incrementAndGet());
+        String second = coalescer.execute("sequential-gate", () -> "second-" + calls.incrementAndGet());
+
+        assertEquals("second-2", second);
+    }
+}
@@ -0,0 +1,31 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import io.jenkins.plugins.armorcode.gate.GateRequestLimiter;
+import java.io.IOException;
+import org.junit.Test;
+
+public class GateRequestLimiterTest {
+
+    /**
+     * A caller over the in-flight limit waits, and gives up once its timeout passes.
+     */
+    @Test
+    public void testInFlightLimit() throws Exception {
+        GateRequestLimiter limiter = GateRequestLimiter.get();
+        try (GateRequestLimiter.Permit first = limiter.acquire(1, 0, 1000)) {
+            assertEquals(1, limiter.getInFlightCount());
+            try {
+                limiter.acquire(1, 0, 100).close();
+                fail("Second request should not get a slot while the first is in flight");
+            } catch (IOException expected) {
+                // Timed out waiting
+            }
+        }
+        assertEquals(0, limiter.getInFlightCount());
+        assertEquals(0, limiter.getQueueDepth());
+        limiter.acquire(1, 0, 100).close();
+    }
+}
@@ -0,0 +1,80 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.armorcode.gate.GateResponse;
+import java.io.IOException;
+import org.junit.Test;
+
+public class GateResponseTest {
+
+    @Test
+    public void testNestedSeverity() throws Exception {
+        GateResponse response = GateResponse.parse("{\"status\":\"FAILED\",\"severity\":{\"Critical\":2,\"High\":1},"
+                + "\"failureReasonText\":\"SLA violations\",\"link\":\"https://example.com/findings\"}");
+
+        assertTrue(response.isFailed());
+        assertEquals(2, response.getCritical());
+        assertEquals(1, response.getHigh());
+        assertTrue(response.hasSeverityFindings());
+        assertFalse(response.hasRiskFindings());
+        assertEquals("SLA violations", response.getFailureReasonText());
+        assertEquals("https://example.com/findings", response.getDetailsLink());
+    }
+
+    /**
+     * Flattened counts are used only when no nested object is present.
+     */
+    @Test
+    public void testFlattenedRiskAndPrecedence() throws Exception {
+        GateResponse flattened =
+                GateResponse.parse("{\"status\":\"FAILED\",\"otherProperties.POOR\":3,\"failureReasonText\":null}");
+        assertEquals(3, flattened.getPoor());
+        assertTrue(flattened.hasRiskFindings());
+        assertNull(flattened.getFailureReasonText());
+
+        GateResponse both = GateResponse.parse("{\"severity\":{\"High\":0},\"severity.High\":5}");
+        assertEquals(0, both.getHigh());
+        assertEquals("UNKNOWN", both.getStatus());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        GateResponse response = GateResponse.parse(
+                "{\"status\":\"SUCCESS\",\"severity\":{\"Low\":4},\"detailsLink\":\"https://example.com\"}");
+        GateResponse copy = GateResponse.parse(response.toJson());
+
+        assertEquals("SUCCESS", copy.getStatus());
+        assertEquals(4, copy.getLow());
+        assertEquals("https://example.com", copy.getDetailsLink());
+    }
+
+    @Test
+    public void testSkipsUnknownStructuresAndKeepsServerHint() throws Exception {
+        GateResponse response = GateResponse.parse("{\"links\":[{\"rel\":\"self\"}],\"meta\":{\"status\":\"PASS\"},"
+                + "\"status\":\"HOLD\",\"nextPollSeconds\":15}");
+
+        assertEquals("HOLD", response.getStatus());
+        assertEquals(15, response.withNextPollSeconds(90).getNextPollSeconds());
+    }
+
+    /**
+     * A reply without a status is rejected rather than treated as a pass, and only explicit passes are cacheable.
+     */
+    @Test
+    public void testMissingStatusIsNotAPass() throws Exception {
+        GateResponse empty = GateResponse.parse("{}");
+        assertFalse(empty.hasStatus());
+        assertFalse(empty.isPassed());
+        assertThrows(IOException.class, empty::requireStatus);
+        assertFalse(GateResponse.parse(empty.toJson()).hasStatus());
+
+        assertTrue(GateResponse.parse("{\"status\":\"SUCCESS\"}").isPassed());
+        assertFalse(GateResponse.parse("{\"status\":\"SOMETHING_NEW\"}").isPassed());
+        assertFalse(GateResponse.parse("{\"status\":\"RELEASE\"}").isPassed());
+    }
+}
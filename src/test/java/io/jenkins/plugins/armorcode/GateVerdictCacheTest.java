@@ -0,0 +1,51 @@
+package io.jenkins.plugins.armorcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import io.jenkins.plugins.armorcode.gate.GateVerdictCache;
+import org.junit.After;
+import org.junit.Test;
+
+public class GateVerdictCacheTest {
+
+    @After
+    public void tearDown() {
+        GateVerdictCache.get().clear();
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        GateVerdictCache cache = GateVerdictCache.get();
+        cache.put("a", "A", 60_000, 2);
+        cache.put("b", "B", 60_000, 2);
+
+        // Touch "a" so that "b" becomes the eldest entry
+        assertEquals("A", cache.get("a"));
+        cache.put("c", "C", 60_000, 2);
+
+        assertEquals(2, cache.size());
+        assertEquals("A", cache.get("a"));
+        assertNull("Least recently used entry should be evicted", cache.get("b"));
+        assertEquals("C", cache.get("c"));
+    }
+
+    @Test
+    public void testExpiredEntriesAreNotReturned() throws Exception {
+        GateVerdictCache cache = GateVerdictCache.get();
+        cache.put("short-lived", "PASS", 1, 10);
+        Thread.sleep(20);
+
+        assertNull(cache.get("short-lived"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDisabledCacheStoresNothing() {
+        GateVerdictCache cache = GateVerdictCache.get();
+        cache.put("disabled", "PASS", 0, 10);
+
+        assertNull(cache.get("disabled"));
+        assertEquals(0, cache.clear());
+    }
+}